@@ -0,0 +1,87 @@
+// k6 load test for the todo API.
+//
+// Compare thread modes by running the same script against each:
+//   APP_VIRTUAL_THREADS=false java -jar target/todo-backend-1.0.0.jar
+//   APP_VIRTUAL_THREADS=true  java -jar target/todo-backend-1.0.0.jar
+//   k6 run -e BASE_URL=http://localhost:8080 loadtest/todos.js
+//
+// The end-of-test summary reports throughput (http_reqs) and p95/p99 latency per scenario.
+//
+// hotToggle aims every request at HOT_TODOS todos to measure toggles under row contention:
+//   k6 run -e SCENARIOS=hotToggle -e VUS=50 loadtest/todos.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '200');
+const DURATION = __ENV.DURATION || '60s';
+const SEED_TODOS = parseInt(__ENV.SEED_TODOS || '500');
+const HOT_TODOS = parseInt(__ENV.HOT_TODOS || '10');
+
+const SCENARIOS = {
+    list: { executor: 'constant-vus', exec: 'list', vus: Math.ceil(VUS / 2), duration: DURATION },
+    stats: { executor: 'constant-vus', exec: 'stats', vus: Math.ceil(VUS / 4), duration: DURATION },
+    toggle: { executor: 'constant-vus', exec: 'toggle', vus: Math.ceil(VUS / 4), duration: DURATION },
+    hotToggle: { executor: 'constant-vus', exec: 'hotToggle', vus: VUS, duration: DURATION },
+};
+const ENABLED = (__ENV.SCENARIOS || 'list,stats,toggle').split(',');
+
+export const options = {
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    scenarios: Object.fromEntries(ENABLED.map(name => [name, SCENARIOS[name]])),
+    thresholds: {
+        'http_req_failed': ['rate<0.01'],
+        'http_req_duration{scenario:list}': ['p(99)<500'],
+        'http_req_duration{scenario:toggle}': ['p(99)<500'],
+        'http_req_duration{scenario:hotToggle}': ['p(99)<500'],
+    },
+};
+
+function json(token) {
+    const headers = { 'Content-Type': 'application/json' };
+    if (token) {
+        headers.Authorization = `Bearer ${token}`;
+    }
+    return { headers };
+}
+
+export function setup() {
+    const email = `load-${Date.now()}@example.com`;
+    const res = http.post(`${BASE_URL}/api/auth/signup`,
+        JSON.stringify({ name: 'Load Test', email, password: 'loadtest123' }), json());
+    const token = res.json('token');
+
+    const ids = [];
+    for (let offset = 0; offset < SEED_TODOS; offset += 500) {
+        const create = [];
+        for (let i = offset; i < Math.min(offset + 500, SEED_TODOS); i++) {
+            create.push({ title: `todo ${i}`, priority: ['low', 'medium', 'high'][i % 3] });
+        }
+        const batch = http.post(`${BASE_URL}/api/todos/batch`, JSON.stringify({ create }), json(token));
+        batch.json('created').forEach(todo => ids.push(todo.id));
+    }
+    return { token, ids };
+}
+
+export function list(data) {
+    const res = http.get(`${BASE_URL}/api/todos?limit=50`, json(data.token));
+    check(res, { 'list 200': r => r.status === 200 });
+}
+
+export function stats(data) {
+    const res = http.get(`${BASE_URL}/api/todos/stats`, json(data.token));
+    check(res, { 'stats 200': r => r.status === 200 });
+}
+
+export function toggle(data) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const res = http.patch(`${BASE_URL}/api/todos/${id}/toggle`, null, json(data.token));
+    check(res, { 'toggle 200': r => r.status === 200 });
+}
+
+export function hotToggle(data) {
+    const id = data.ids[Math.floor(Math.random() * Math.min(HOT_TODOS, data.ids.length))];
+    const res = http.patch(`${BASE_URL}/api/todos/${id}/toggle`, null, json(data.token));
+    check(res, { 'hot toggle 200': r => r.status === 200 });
+}
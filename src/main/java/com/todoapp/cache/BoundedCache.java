@@ -0,0 +1,148 @@
+package com.todoapp.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Small in-process cache with a hard size bound (least recently used entries go first) and a
+ * per-entry expiry. Expired entries are dropped lazily on access and counted as evictions.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    hits.increment();
+                    return entry.value();
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stores an entry that expires at the earlier of {@code expiresAtMillis} and the configured TTL.
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        long expiresAt = Math.min(expiresAtMillis, System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    /**
+     * Replaces a live entry with {@code remap(value)}, keeping its expiry. Absent or expired entries
+     * are left alone; returning null from {@code remap} removes the entry.
+     */
+    public void update(K key, UnaryOperator<V> remap) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || entry.expiresAt() <= now) {
+                return;
+            }
+            V value = remap.apply(entry.value());
+            if (value == null) {
+                entries.remove(key);
+            } else {
+                entries.put(key, new Entry<>(value, entry.expiresAt()));
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        synchronized (entries) {
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> entry = it.next();
+                if (predicate.test(entry.getKey(), entry.getValue().value())) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public void bindTo(MeterRegistry registry, String name) {
+        FunctionCounter.builder("cache.gets", this, BoundedCache::hits)
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, BoundedCache::misses)
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, BoundedCache::evictions)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", this, BoundedCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,71 @@
+package com.todoapp.config;
+
+import com.todoapp.monitoring.ConnectionHoldMetrics;
+import com.todoapp.monitoring.ConnectionTimingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourcePoolConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourcePoolPostProcessor(Environment environment,
+                                                                ObjectProvider<ConnectionHoldMetrics> holdMetrics) {
+        return new DataSourcePoolPostProcessor(environment, holdMetrics);
+    }
+
+    /**
+     * Sizes Hikari pools from the core count unless a size is configured, fails fast on an exhausted
+     * pool under virtual threads, and wraps the application DataSource to time connection holds.
+     */
+    @Slf4j
+    static class DataSourcePoolPostProcessor implements BeanPostProcessor {
+
+        private final Environment environment;
+        private final ObjectProvider<ConnectionHoldMetrics> holdMetrics;
+
+        DataSourcePoolPostProcessor(Environment environment, ObjectProvider<ConnectionHoldMetrics> holdMetrics) {
+            this.environment = environment;
+            this.holdMetrics = holdMetrics;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource pool) {
+                configure(pool, beanName);
+            }
+            if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                return new ConnectionTimingDataSource(dataSource, holdMetrics);
+            }
+            return bean;
+        }
+
+        private void configure(HikariDataSource pool, String beanName) {
+            int maxSize = environment.getProperty("app.datasource.pool.max-size", Integer.class, 0);
+            if (maxSize <= 0) {
+                int cores = environment.getProperty("app.datasource.pool.cores", Integer.class, 0);
+                // (cores * 2) + 1: enough to overlap I/O waits without the database thrashing
+                maxSize = (cores > 0 ? cores : Runtime.getRuntime().availableProcessors()) * 2 + 1;
+            }
+            pool.setMaximumPoolSize(maxSize);
+
+            // Virtual threads remove the request thread limit, so the pool is what queues callers;
+            // give up sooner than the default 30s rather than piling up waiters
+            boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            if (virtualThreads) {
+                Duration timeout = environment.getProperty(
+                        "app.datasource.pool.virtual-threads-connection-timeout", Duration.class, Duration.ofSeconds(5));
+                pool.setConnectionTimeout(timeout.toMillis());
+            }
+            log.info("Connection pool {} sized to {} (virtual threads: {})", beanName, maxSize, virtualThreads);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.todoapp.config;
+
+import com.todoapp.monitoring.ServiceMethodMetrics;
+import com.todoapp.service.TodoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Times every public TodoService method. Ordered ahead of the transaction advice so commit time
+     * is part of the measurement.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor todoServiceMetricsAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return method.getDeclaringClass() == TodoService.class && Modifier.isPublic(method.getModifiers());
+            }
+        };
+        pointcut.setClassFilter(new RootClassFilter(TodoService.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut,
+                new ServiceMethodMetrics("todo.service", "TodoService call time", meterRegistry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -1,28 +1,106 @@
 package com.todoapp.config;
 
+import com.todoapp.entity.User;
 import com.todoapp.repository.UserRepository;
+import com.todoapp.security.MeteredPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Configuration
 @RequiredArgsConstructor
 public class UserDetailsConfig {
 
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+
     private final UserRepository userRepository;
 
+    @Value("${app.auth.password.algorithm}")
+    private String algorithm;
+
+    @Value("${app.auth.password.bcrypt.strength}")
+    private int bcryptStrength;
+
+    @Value("${app.auth.password.argon2.memory}")
+    private int argon2Memory;
+
+    @Value("${app.auth.password.argon2.iterations}")
+    private int argon2Iterations;
+
+    @Value("${app.auth.password.argon2.parallelism}")
+    private int argon2Parallelism;
+
     @Bean
     public UserDetailsService userDetailsService() {
         return username -> userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
+    /**
+     * Called by the authentication provider after a successful login whose stored hash doesn't match
+     * the configured settings. Only the password column is written, so the user's todos are never
+     * touched. Cached principals hold nothing a rehash changes, so they stay.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            User account = (User) user;
+            userRepository.updatePassword(account.getId(), newPassword, LocalDateTime.now());
+            account.setPassword(newPassword);
+            return account;
+        };
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt(),
+                "argon2", argon2());
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("app.auth.password.algorithm must be bcrypt or argon2");
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        String settings = algorithm.equals("bcrypt")
+                ? "bcrypt-" + bcryptStrength
+                : "argon2-m" + argon2Memory + "-t" + argon2Iterations + "-p" + argon2Parallelism;
+        return new MeteredPasswordEncoder(encoder, settings, meterRegistry);
+    }
+
+    // The stock encoders only upgrade to a higher cost; these rehash on any difference so that
+    // lowering a setting takes effect too
+    private PasswordEncoder bcrypt() {
+        String cost = String.format("$%02d$", bcryptStrength);
+        return new BCryptPasswordEncoder(bcryptStrength) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return encodedPassword != null && !encodedPassword.startsWith(cost, 3);
+            }
+        };
+    }
+
+    private PasswordEncoder argon2() {
+        String params = "$m=" + argon2Memory + ",t=" + argon2Iterations + ",p=" + argon2Parallelism + "$";
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, argon2Parallelism,
+                argon2Memory, argon2Iterations) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return encodedPassword != null && !encodedPassword.contains(params);
+            }
+        };
     }
 }
@@ -0,0 +1,16 @@
+package com.todoapp.config;
+
+import com.todoapp.entity.Priority;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        // Query parameters use the same lowercase names as JSON bodies
+        registry.addConverter(String.class, Priority.class, Priority::fromValue);
+    }
+}
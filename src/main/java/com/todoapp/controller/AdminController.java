@@ -0,0 +1,24 @@
+package com.todoapp.controller;
+
+import com.todoapp.dto.AuthDto;
+import com.todoapp.service.AuthService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    
+    private final AuthService authService;
+    
+    @PutMapping("/users/{id}/role")
+    public ResponseEntity<Void> updateRole(
+            @PathVariable Long id,
+            @Valid @RequestBody AuthDto.RoleRequest request) {
+        authService.updateRole(id, request.getRole());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,7 +1,7 @@
 package com.todoapp.controller;
 
 import com.todoapp.dto.AuthDto;
-import com.todoapp.entity.User;
+import com.todoapp.security.AuthenticatedUser;
 import com.todoapp.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -30,7 +30,7 @@ public class AuthController {
     
     @GetMapping("/me")
     public ResponseEntity<AuthDto.UserDto> getCurrentUser(
-            @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(authService.getCurrentUser(user));
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(authService.getCurrentUser(user.id()));
     }
 }
@@ -1,15 +1,32 @@
 package com.todoapp.controller;
 
+import com.todoapp.dto.StatsDto;
 import com.todoapp.dto.TodoDto;
-import com.todoapp.entity.User;
+import com.todoapp.security.AuthenticatedUser;
+import com.todoapp.service.PreconditionFailedException;
+import com.todoapp.service.StatsService;
+import com.todoapp.service.TodoExportService;
+import com.todoapp.service.TodoFileFormat;
+import com.todoapp.service.TodoImportService;
 import com.todoapp.service.TodoService;
+import com.todoapp.service.TodoStreamService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/todos")
@@ -17,63 +34,172 @@ import java.util.List;
 public class TodoController {
 
     private final TodoService todoService;
+    private final StatsService statsService;
+    private final TodoStreamService todoStreamService;
+    private final TodoExportService todoExportService;
+    private final TodoImportService todoImportService;
 
     @GetMapping
-    public ResponseEntity<List<TodoDto.Response>> getAllTodos(
-            @AuthenticationPrincipal User user,
-            @RequestParam(required = false) Boolean completed,
-            @RequestParam(required = false, defaultValue = "date") String sortBy) {
-        if (completed != null) {
-            return ResponseEntity.ok(todoService.getTodosByStatus(user, completed));
+    public ResponseEntity<TodoDto.PageResponse> getAllTodos(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            TodoDto.Filter filter,
+            @RequestParam(required = false, defaultValue = "date") String sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        // overdue depends on the clock as well as the data, so those listings aren't revalidated
+        if (filter.getOverdue() != null) {
+            return ResponseEntity.ok(todoService.listTodos(user.id(), filter, "priority".equals(sortBy), cursor, limit));
         }
+        String eTag = eTag(todoService.getListVersion(user.id()));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return revalidated(eTag).body(todoService.listTodos(user.id(), filter, "priority".equals(sortBy), cursor, limit));
+    }
 
-        if ("priority".equals(sortBy)) {
-            return ResponseEntity.ok(todoService.getTodosByPriority(user));
+    @GetMapping("/search")
+    public ResponseEntity<TodoDto.PageResponse> searchTodos(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        String eTag = eTag(todoService.getListVersion(user.id()));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
         }
+        return revalidated(eTag).body(todoService.searchTodos(user.id(), q, cursor, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long after) {
+        TodoFileFormat exportFormat = TodoFileFormat.fromName(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.getFilename() + "\"")
+                .body(todoExportService.export(user.id(), exportFormat, after));
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<TodoDto.ImportResponse> importTodos(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) throws IOException {
+        TodoFileFormat format = TodoFileFormat.fromContentType(contentType);
+        InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 64 * 1024) : body;
+        return ResponseEntity.ok(todoImportService.importTodos(user.id(), format, in));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<TodoDto.ChangesResponse> getChanges(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(todoService.getChanges(user.id(), since, cursor));
+    }
 
-        return ResponseEntity.ok(todoService.getAllTodos(user));
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return todoStreamService.subscribe(user.id());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<TodoDto.Response> getTodoById(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(todoService.getTodoById(id, user));
+            @AuthenticationPrincipal AuthenticatedUser user,
+            WebRequest webRequest) {
+        TodoDto.Response todo = todoService.getTodoById(id, user.id());
+        String eTag = eTag(todo.getVersion());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return revalidated(eTag).body(todo);
     }
 
     @PostMapping
     public ResponseEntity<TodoDto.Response> createTodo(
             @Valid @RequestBody TodoDto.CreateRequest request,
-            @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(todoService.createTodo(request, user));
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(todoService.createTodo(request, user.id()));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<TodoDto.Response> updateTodo(
             @PathVariable Long id,
             @Valid @RequestBody TodoDto.UpdateRequest request,
-            @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(todoService.updateTodo(id, request, user));
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TodoDto.Response todo = todoService.updateTodo(id, request, user.id(), expectedVersion(ifMatch));
+        return revalidated(eTag(todo.getVersion())).body(todo);
     }
 
     @PatchMapping("/{id}/toggle")
     public ResponseEntity<TodoDto.Response> toggleTodo(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(todoService.toggleTodo(id, user));
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TodoDto.Response todo = todoService.toggleTodo(id, user.id(), expectedVersion(ifMatch));
+        return revalidated(eTag(todo.getVersion())).body(todo);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTodo(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user) {
-        todoService.deleteTodo(id, user);
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        todoService.deleteTodo(id, user.id(), expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<TodoDto.BatchResponse> applyBatch(
+            @Valid @RequestBody TodoDto.BatchRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(todoService.applyBatch(request, user.id()));
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<TodoDto.StatsResponse> getStats(
-            @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(todoService.getStats(user));
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(statsService.getStats(user.id()));
+    }
+
+    @GetMapping("/stats/breakdown")
+    public ResponseEntity<StatsDto> getStatsBreakdown(
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(statsService.getBreakdown(user.id()));
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // no-cache lets clients store the response but makes them revalidate it with If-None-Match
+    private static ResponseEntity.BodyBuilder revalidated(String eTag) {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
+    // If-Match carries a todo ETag; "*" or no header means the write is unconditional
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("Todo has been modified");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Todo has been modified");
+        }
     }
 }
@@ -0,0 +1,239 @@
+package com.todoapp.datasource;
+
+import com.todoapp.cache.BoundedCache;
+import com.todoapp.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary. A replica
+ * takes reads only while its last health check found it streaming from the primary within the lag
+ * limit, and a user's reads stay on the primary for a short window after they commit a write so
+ * they always see their own changes.
+ * <p>
+ * That window is tracked twice: in this instance's memory, and in a {@value #LAST_WRITE_COOKIE}
+ * cookie holding the commit time, which the client sends back to whichever instance serves its next
+ * request. Behind a load balancer without session affinity only the cookie carries over, so clients
+ * that drop cookies (or browsers not sending credentials) can read stale data from a replica on
+ * another instance until it catches up.
+ * <p>
+ * Must sit behind a LazyConnectionDataSourceProxy so the lookup runs once the read-only flag is set.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    private static final String PRIMARY = "primary";
+    static final String LAST_WRITE_COOKIE = "last_write";
+
+    // Whether a WAL receiver is running, then the lag: zero when the replica has replayed everything it
+    // received, otherwise the age of the last replayed commit. Without a receiver (replication broken,
+    // or not a streaming replica) received and replayed stay equal forever, so the lag alone reads 0.
+    private static final String LAG_QUERY = "SELECT EXISTS (SELECT 1 FROM pg_stat_wal_receiver), " +
+            "CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+            "THEN 0 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration stickyWindow;
+    private final BoundedCache<Long, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, HikariDataSource> replicas, Duration maxLag,
+                                    Duration stickyWindow, int maxStickyUsers) {
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new Replica(replica.getKey(), replica.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+        this.stickyWindow = stickyWindow;
+        this.recentWriters = new BoundedCache<>(maxStickyUsers, stickyWindow);
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriter(userId);
+            return PRIMARY;
+        }
+        if ((userId != null && recentWriters.get(userId) != null) || clientWroteRecently()) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        Replica replica = nextHealthyReplica();
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica.name;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(LAG_QUERY)) {
+                result.next();
+                boolean receiving = result.getBoolean(1);
+                replica.lagSeconds = result.getDouble(2);
+                healthy = receiving && replica.lagSeconds * 1000 <= maxLag.toMillis();
+                if (!receiving && replica.healthy) {
+                    log.warn("Replica {} has no WAL receiver, routing its reads to the primary", replica.name);
+                } else if (!healthy && replica.healthy) {
+                    log.warn("Replica {} is {}s behind, routing its reads to the primary", replica.name, replica.lagSeconds);
+                }
+            } catch (SQLException e) {
+                healthy = false;
+                if (replica.healthy) {
+                    log.warn("Replica {} failed its health check, routing its reads to the primary", replica.name, e);
+                }
+            }
+            if (healthy && !replica.healthy) {
+                log.info("Replica {} is serving reads", replica.name);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private void rememberWriter(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+                markClient();
+            }
+        });
+    }
+
+    // Runs before the controller writes the body, so the response headers are still open
+    private void markClient() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null && !attributes.getResponse().isCommitted()) {
+            ResponseCookie cookie = ResponseCookie.from(LAST_WRITE_COOKIE, Long.toString(System.currentTimeMillis()))
+                    .path("/api")
+                    .maxAge(stickyWindow)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            attributes.getResponse().addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+    }
+
+    // A client can only use this to send its own reads to the primary, so the value isn't signed
+    private boolean clientWroteRecently() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        Cookie[] cookies = attributes.getRequest().getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (LAST_WRITE_COOKIE.equals(cookie.getName())) {
+                try {
+                    long age = System.currentTimeMillis() - Long.parseLong(cookie.getValue());
+                    return age >= 0 && age < stickyWindow.toMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("db.routing.reads", replicaReads, LongAdder::sum)
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("db.routing.reads", primaryReads, LongAdder::sum)
+                .tag("target", "primary")
+                .register(registry);
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name)
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+        recentWriters.bindTo(registry, "db.routing.sticky-users");
+    }
+}
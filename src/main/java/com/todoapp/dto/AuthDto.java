@@ -1,7 +1,9 @@
 package com.todoapp.dto;
 
+import com.todoapp.entity.UserRole;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -41,6 +43,15 @@ public class AuthDto {
         private String password;
     }
     
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RoleRequest {
+        @NotNull(message = "Role is required")
+        private UserRole role;
+    }
+    
     @Data
     @Builder
     @NoArgsConstructor
@@ -13,10 +13,24 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class StatsDto {
-    private List<Stat> stats = new ArrayList<>();
+    private long total;
+    private long completed;
+    private long pending;
+    private long overdue;
+    private long upcoming;
 
+    // Both breakdowns count pending todos only
+    @Builder.Default
+    private List<Stat> byPriority = new ArrayList<>();
+
+    @Builder.Default
+    private List<Stat> byDueDate = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class Stat {
         private String name;
-        private String value;
+        private long value;
     }
 }
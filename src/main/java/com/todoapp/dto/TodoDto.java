@@ -1,13 +1,19 @@
 package com.todoapp.dto;
 
+import com.todoapp.entity.Priority;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 public class TodoDto {
     
@@ -22,7 +28,7 @@ public class TodoDto {
         
         private String description;
         
-        private String priority = "medium";
+        private Priority priority = Priority.MEDIUM;
         
         private LocalDateTime dueDate;
     }
@@ -39,11 +45,76 @@ public class TodoDto {
         
         private Boolean completed;
         
-        private String priority;
+        private Priority priority;
         
         private LocalDateTime dueDate;
     }
     
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchUpdate {
+        @NotNull(message = "Id is required")
+        private Long id;
+        
+        @Valid
+        @NotNull(message = "Changes are required")
+        private UpdateRequest changes;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchRequest {
+        @Valid
+        @Size(max = 500, message = "At most 500 creates per batch")
+        private List<CreateRequest> create;
+        
+        @Valid
+        @Size(max = 500, message = "At most 500 updates per batch")
+        private List<BatchUpdate> update;
+        
+        @Size(max = 500, message = "At most 500 toggles per batch")
+        private List<Long> toggle;
+        
+        @Size(max = 500, message = "At most 500 deletes per batch")
+        private List<Long> delete;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchResponse {
+        private List<Response> created;
+        private List<Response> updated;
+        private List<Response> toggled;
+        private List<Long> deleted;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImportError {
+        private long line;
+        private String message;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImportResponse {
+        private long processed;
+        private long imported;
+        private long failed;
+        private List<ImportError> errors;
+        private boolean errorsTruncated;
+    }
+    
     @Data
     @Builder
     @NoArgsConstructor
@@ -53,11 +124,55 @@ public class TodoDto {
         private String title;
         private String description;
         private boolean completed;
-        private String priority;
+        private Priority priority;
         private LocalDateTime dueDate;
         private LocalDateTime createdAt;
         private LocalDateTime updatedAt;
         private LocalDateTime completedAt;
+        private long version;
+    }
+    
+    /**
+     * Query parameters for listing. Every field is optional and they combine with AND; lower
+     * bounds are inclusive, upper bounds exclusive. overdue=false excludes overdue todos.
+     */
+    @Data
+    @NoArgsConstructor
+    public static class Filter {
+        private Boolean completed;
+        private Set<Priority> priority;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        private LocalDateTime dueAfter;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        private LocalDateTime dueBefore;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        private LocalDateTime createdAfter;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        private LocalDateTime createdBefore;
+        private Boolean overdue;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PageResponse {
+        private List<Response> items;
+        private String nextCursor;
+        private boolean hasMore;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChangesResponse {
+        private List<Response> changed;
+        private List<Long> deleted;
+        private LocalDateTime watermark;
+        private boolean resetRequired;
+        private String nextCursor;
+        private boolean hasMore;
     }
     
     @Data
@@ -69,5 +184,6 @@ public class TodoDto {
         private long completed;
         private long pending;
         private long overdue;
+        private long upcoming;
     }
 }
@@ -0,0 +1,50 @@
+package com.todoapp.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Stored as a smallint {@link #getCode() code}. Codes ascend from most to least urgent so that
+ * {@code ORDER BY priority} lists high first and can be served straight from an index.
+ */
+public enum Priority {
+    HIGH((short) 0, "high"),
+    MEDIUM((short) 1, "medium"),
+    LOW((short) 2, "low");
+
+    private final short code;
+    private final String value;
+
+    Priority(short code, String value) {
+        this.code = code;
+        this.value = value;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    @JsonCreator
+    public static Priority fromValue(String value) {
+        for (Priority priority : values()) {
+            if (priority.value.equalsIgnoreCase(value)) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Priority must be one of low, medium, high");
+    }
+
+    public static Priority fromCode(short code) {
+        for (Priority priority : values()) {
+            if (priority.code == code) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Unknown priority code " + code);
+    }
+}
@@ -0,0 +1,18 @@
+package com.todoapp.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class PriorityConverter implements AttributeConverter<Priority, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Priority priority) {
+        return priority != null ? priority.getCode() : null;
+    }
+
+    @Override
+    public Priority convertToEntityAttribute(Short code) {
+        return code != null ? Priority.fromCode(code) : null;
+    }
+}
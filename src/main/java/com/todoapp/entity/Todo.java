@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -16,8 +18,12 @@ import java.time.LocalDateTime;
 @Table(name = "todos")
 public class Todo {
     
+    // Ids handed out per nextval of todos_seq (its INCREMENT BY); bulk import reserves blocks of this size too
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todos_seq")
+    @SequenceGenerator(name = "todos_seq", sequenceName = "todos_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false)
@@ -30,13 +36,15 @@ public class Todo {
     private boolean completed = false;
     
     @Column(nullable = false)
-    private String priority = "medium"; // low, medium, high
+    private Priority priority = Priority.MEDIUM;
     
     @Column(name = "due_date")
     private LocalDateTime dueDate;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
     
     @Column(name = "created_at")
@@ -48,6 +56,10 @@ public class Todo {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
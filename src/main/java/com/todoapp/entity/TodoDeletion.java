@@ -0,0 +1,40 @@
+package com.todoapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "todo_deletions")
+public class TodoDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_deletions_seq")
+    @SequenceGenerator(name = "todo_deletions_seq", sequenceName = "todo_deletions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "todo_id", nullable = false)
+    private Long todoId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public static TodoDeletion of(Todo todo, LocalDateTime deletedAt) {
+        return TodoDeletion.builder()
+                .todoId(todo.getId())
+                .userId(todo.getUser().getId())
+                .deletedAt(deletedAt)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.todoapp.entity;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Stored by name. Admins can read operational endpoints such as /actuator/metrics.
+ */
+public enum UserRole {
+    USER,
+    ADMIN;
+
+    private final List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + name()));
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
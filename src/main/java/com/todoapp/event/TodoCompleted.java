@@ -0,0 +1,11 @@
+package com.todoapp.event;
+
+import java.time.LocalDateTime;
+
+public record TodoCompleted(Long userId, Long todoId, LocalDateTime completedAt) implements TodoEvent {
+
+    @Override
+    public String type() {
+        return "completed";
+    }
+}
@@ -0,0 +1,9 @@
+package com.todoapp.event;
+
+public record TodoCreated(Long userId, Long todoId) implements TodoEvent {
+
+    @Override
+    public String type() {
+        return "created";
+    }
+}
@@ -0,0 +1,9 @@
+package com.todoapp.event;
+
+public record TodoDeleted(Long userId, Long todoId) implements TodoEvent {
+
+    @Override
+    public String type() {
+        return "deleted";
+    }
+}
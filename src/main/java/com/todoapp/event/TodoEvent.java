@@ -0,0 +1,14 @@
+package com.todoapp.event;
+
+/**
+ * Published by {@code TodoService} on every mutation. Listeners that must not observe rolled-back
+ * work should use {@code @TransactionalEventListener}.
+ */
+public sealed interface TodoEvent permits TodoCreated, TodoUpdated, TodoCompleted, TodoDeleted {
+
+    Long userId();
+
+    Long todoId();
+
+    String type();
+}
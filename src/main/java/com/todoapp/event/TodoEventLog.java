@@ -0,0 +1,190 @@
+package com.todoapp.event;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only log of committed todo events. Request threads only enqueue; a single writer thread
+ * drains the queue and writes each batch with one flush. When the queue is full, events are
+ * dropped and counted rather than making the caller wait.
+ * <p>
+ * If the file can't be written, the writer reopens it with growing backoff and retries the batch
+ * that failed, so a line may be written twice; health reports DOWN until it is writable again.
+ */
+@Slf4j
+@Component
+public class TodoEventLog implements SmartLifecycle, MeterBinder, HealthIndicator {
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    @Value("${app.events.log-file}")
+    private Path logFile;
+
+    @Value("${app.events.queue-capacity}")
+    private int capacity;
+
+    @Value("${app.events.batch-size}")
+    private int batchSize;
+
+    @Value("${app.events.flush-interval}")
+    private Duration flushInterval;
+
+    @Value("${app.events.max-retry-backoff}")
+    private Duration maxRetryBackoff;
+
+    private volatile boolean running;
+    private volatile IOException failure;
+    private Thread writer;
+
+    // Only touched by the writer thread: a batch already taken off the queue whose write failed
+    private String pendingBatch;
+    private int pendingCount;
+
+    private record Entry(Instant at, TodoEvent event) {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoEvent(TodoEvent event) {
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(new Entry(Instant.now(), event));
+        if (queued.get() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("todo-event-writer").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(flushInterval.multipliedBy(10).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long backoffNanos = flushInterval.toNanos();
+        while (running) {
+            try (Writer out = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                while (running) {
+                    int count = writeBatch(out);
+                    if (failure != null) {
+                        log.info("Todo event log {} is writable again", logFile);
+                        failure = null;
+                        backoffNanos = flushInterval.toNanos();
+                    }
+                    if (count < batchSize) {
+                        LockSupport.parkNanos(flushInterval.toNanos());
+                    }
+                }
+                while (writeBatch(out) > 0) {
+                    // drain whatever was queued before shutdown
+                }
+            } catch (IOException e) {
+                writeFailures.increment();
+                if (failure == null) {
+                    log.error("Todo event log {} is not writable, retrying", logFile, e);
+                }
+                failure = e;
+                LockSupport.parkNanos(backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, maxRetryBackoff.toNanos());
+            }
+        }
+    }
+
+    private int writeBatch(Writer out) throws IOException {
+        if (pendingBatch == null) {
+            StringBuilder batch = new StringBuilder();
+            int count = 0;
+            Entry entry;
+            while (count < batchSize && (entry = queue.poll()) != null) {
+                TodoEvent event = entry.event();
+                batch.append(entry.at()).append(' ').append(event.type())
+                        .append(" user=").append(event.userId())
+                        .append(" todo=").append(event.todoId());
+                if (event instanceof TodoCompleted completed) {
+                    batch.append(" completedAt=").append(completed.completedAt());
+                }
+                batch.append('\n');
+                count++;
+            }
+            if (count == 0) {
+                return 0;
+            }
+            queued.addAndGet(-count);
+            pendingBatch = batch.toString();
+            pendingCount = count;
+        }
+        int count = pendingCount;
+        out.write(pendingBatch);
+        out.flush();
+        pendingBatch = null;
+        written.add(count);
+        return count;
+    }
+
+    @Override
+    public Health health() {
+        IOException current = failure;
+        if (current != null) {
+            return Health.down().withDetail("file", logFile.toString()).withException(current).build();
+        }
+        return Health.up().withDetail("file", logFile.toString()).build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("todo.events.queued", queued, AtomicInteger::get)
+                .register(registry);
+        FunctionCounter.builder("todo.events.written", written, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("todo.events.dropped", dropped, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("todo.events.write.failures", writeFailures, LongAdder::sum)
+                .register(registry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.todoapp.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times how long connections are held, tagged with the transactional method that acquired them
+ * ("none" outside a transaction). The method is captured when the connection is handed out, since
+ * the transaction has already been cleaned up by the time it is released. This relies on
+ * open-in-view being off: with it on, the first transaction's connection stays bound to the request
+ * and the whole request would be charged to that method.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConnectionHoldMetrics implements TransactionExecutionListener {
+
+    private static final String NO_TRANSACTION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<String> currentMethod = new ThreadLocal<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        currentMethod.set(methodName(transaction.getTransactionName()));
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null) {
+            currentMethod.remove();
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        currentMethod.remove();
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        currentMethod.remove();
+    }
+
+    public String currentMethod() {
+        String method = currentMethod.get();
+        return method != null ? method : NO_TRANSACTION;
+    }
+
+    public void record(String method, long nanos) {
+        timers.computeIfAbsent(method, name -> Timer.builder("db.connection.hold")
+                        .description("Time a connection was held, by the transactional method that acquired it")
+                        .tag("method", name)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // "com.todoapp.service.TodoService.toggleTodo" -> "TodoService.toggleTodo"
+    private static String methodName(String transactionName) {
+        if (transactionName == null || transactionName.isEmpty()) {
+            return NO_TRANSACTION;
+        }
+        int method = transactionName.lastIndexOf('.');
+        int type = method > 0 ? transactionName.lastIndexOf('.', method - 1) : -1;
+        return transactionName.substring(type + 1);
+    }
+}
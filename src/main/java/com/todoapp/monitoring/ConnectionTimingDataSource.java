@@ -0,0 +1,53 @@
+package com.todoapp.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands out connections that report their hold time to {@link ConnectionHoldMetrics} on close.
+ */
+public class ConnectionTimingDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<ConnectionHoldMetrics> metrics;
+
+    public ConnectionTimingDataSource(DataSource target, ObjectProvider<ConnectionHoldMetrics> metrics) {
+        super(target);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        ConnectionHoldMetrics holdMetrics = metrics.getObject();
+        String method = holdMetrics.currentMethod();
+        long acquiredAt = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, invoked, args) -> {
+                    if ("close".equals(invoked.getName()) && closed.compareAndSet(false, true)) {
+                        holdMetrics.record(method, System.nanoTime() - acquiredAt);
+                    }
+                    try {
+                        return invoked.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
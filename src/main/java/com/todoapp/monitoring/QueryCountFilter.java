@@ -0,0 +1,66 @@
+package com.todoapp.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many SQL statements each request ran, by route. Runs ahead of the security chain so
+ * the principal lookup is included. Summaries are cached by method and route pattern, both of
+ * which come from fixed sets, so recording doesn't allocate once a route has been seen.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<String, DistributionSummary>> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        queryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int queries = queryCounter.stop();
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            summary(request.getMethod(), route != null ? route.toString() : "UNKNOWN").record(queries);
+        }
+    }
+
+    private DistributionSummary summary(String method, String uri) {
+        Map<String, DistributionSummary> byUri = summaries.get(method);
+        if (byUri == null) {
+            byUri = summaries.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        DistributionSummary summary = byUri.get(uri);
+        if (summary == null) {
+            summary = byUri.computeIfAbsent(uri, u -> DistributionSummary.builder("http.server.requests.queries")
+                    .description("SQL statements executed per request")
+                    .tag("method", method)
+                    .tag("uri", u)
+                    .register(meterRegistry));
+        }
+        return summary;
+    }
+}
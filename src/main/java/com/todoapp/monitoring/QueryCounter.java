@@ -0,0 +1,44 @@
+package com.todoapp.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is open. A
+ * JDBC batch is prepared once and counts as one statement. The per-thread counter is reused
+ * across requests; a negative value means no count is open.
+ */
+@Component
+public class QueryCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[]{-1});
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] current = count.get();
+        if (current[0] >= 0) {
+            current[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        count.get()[0] = 0;
+    }
+
+    public int stop() {
+        int[] current = count.get();
+        int queries = current[0];
+        current[0] = -1;
+        return Math.max(queries, 0);
+    }
+}
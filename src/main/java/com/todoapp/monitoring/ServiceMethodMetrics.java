@@ -0,0 +1,64 @@
+package com.todoapp.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times service calls under {@code name}, tagged with the method and the exception it threw
+ * ("none" on success). Success timers are created on a method's first call and looked up by
+ * {@link Method} afterwards, so a successful call records without allocating.
+ */
+public class ServiceMethodMetrics implements MethodInterceptor {
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final String name;
+    private final String description;
+    // Resolved on first use: advisors are created before the registry's meter filters are applied
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMethodMetrics(String name, String description, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.name = name;
+        this.description = description;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            success(invocation.getMethod()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(invocation.getMethod(), e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer success(Method method) {
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, m -> timer(m, NO_EXCEPTION));
+        }
+        return timer;
+    }
+
+    private Timer timer(Method method, String exception) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(meterRegistry.getObject());
+    }
+}
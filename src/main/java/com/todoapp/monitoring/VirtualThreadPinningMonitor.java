@@ -0,0 +1,60 @@
+package com.todoapp.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Counts virtual threads that stayed pinned to their carrier (e.g. blocking inside a
+ * {@code synchronized} block in a JDBC driver) for longer than the configured threshold, using the
+ * JDK's own {@code jdk.VirtualThreadPinned} flight recorder event.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.threads.pinning-threshold}")
+    private Duration threshold;
+
+    private RecordingStream recording;
+
+    @PostConstruct
+    void start() {
+        Counter pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier beyond the threshold")
+                .register(meterRegistry);
+        Timer pinnedTime = Timer.builder("jvm.threads.virtual.pinned.duration")
+                .register(meterRegistry);
+
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold);
+        recording.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            pinnedTime.record(event.getDuration());
+        });
+        recording.startAsync();
+        log.info("Monitoring virtual thread pinning above {}", threshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        recording.close();
+    }
+}
@@ -0,0 +1,70 @@
+package com.todoapp.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits for the unauthenticated auth endpoints: one bucket per client IP for every signup and
+ * login, and one per account for failed logins, so guessing a password stays slow even when the
+ * attempts come from many addresses.
+ */
+@Component
+public class AuthRateLimiter implements MeterBinder {
+
+    private final TokenBucketLimiter byIp;
+    private final TokenBucketLimiter byAccount;
+    private final LongAdder ipRejections = new LongAdder();
+    private final LongAdder accountRejections = new LongAdder();
+
+    public AuthRateLimiter(@Value("${app.auth.rate-limit.ip.capacity}") int ipCapacity,
+                           @Value("${app.auth.rate-limit.ip.period}") Duration ipPeriod,
+                           @Value("${app.auth.rate-limit.account.capacity}") int accountCapacity,
+                           @Value("${app.auth.rate-limit.account.period}") Duration accountPeriod,
+                           @Value("${app.auth.rate-limit.max-keys}") int maxKeys) {
+        this.byIp = new TokenBucketLimiter(ipCapacity, ipPeriod, maxKeys);
+        this.byAccount = new TokenBucketLimiter(accountCapacity, accountPeriod, maxKeys);
+    }
+
+    public void acquireForIp(String ip) {
+        Duration wait = byIp.tryAcquire(ip);
+        if (!wait.isZero()) {
+            ipRejections.increment();
+            throw new RateLimitExceededException("Too many requests", wait);
+        }
+    }
+
+    public void acquireForAccount(String email) {
+        Duration wait = byAccount.tryAcquire(email);
+        if (!wait.isZero()) {
+            accountRejections.increment();
+            throw new RateLimitExceededException("Too many failed login attempts", wait);
+        }
+    }
+
+    public void releaseForAccount(String email) {
+        byAccount.release(email);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.rate_limit.rejections", ipRejections, LongAdder::sum)
+                .tag("scope", "ip")
+                .register(registry);
+        FunctionCounter.builder("auth.rate_limit.rejections", accountRejections, LongAdder::sum)
+                .tag("scope", "account")
+                .register(registry);
+        Gauge.builder("auth.rate_limit.keys", byIp, TokenBucketLimiter::size)
+                .tag("scope", "ip")
+                .register(registry);
+        Gauge.builder("auth.rate_limit.keys", byAccount, TokenBucketLimiter::size)
+                .tag("scope", "account")
+                .register(registry);
+    }
+}
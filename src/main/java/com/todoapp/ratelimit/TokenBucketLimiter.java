@@ -0,0 +1,111 @@
+package com.todoapp.ratelimit;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by string: each key may take {@code capacity} tokens at once, refilled evenly
+ * over {@code period}. A bucket is a single long holding the time at which it will be full again
+ * (GCRA), updated by compare-and-set, so acquiring never blocks. Keys are spread over striped maps
+ * with a hard size bound; a full stripe first drops buckets that have refilled, which carry no
+ * state, and then the ones closest to refilling.
+ */
+public class TokenBucketLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final long interval;
+    private final long period;
+    private final int maxKeysPerStripe;
+    private final Map<String, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketLimiter(int capacity, Duration period, int maxKeys) {
+        this.period = period.toNanos();
+        this.interval = this.period / capacity;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes a token for {@code key}. Returns zero if one was available, otherwise how long until
+     * one will be; nothing is taken in that case.
+     */
+    public Duration tryAcquire(String key) {
+        AtomicLong bucket = bucket(key);
+        while (true) {
+            long now = System.nanoTime();
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt - now, 0) + now + interval;
+            long wait = next - now - period;
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire}, e.g. when only failed attempts should count.
+     */
+    public void release(String key) {
+        AtomicLong bucket = stripe(key).get(key);
+        if (bucket != null) {
+            bucket.addAndGet(-interval);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucket(String key) {
+        Map<String, AtomicLong> stripe = stripe(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxKeysPerStripe) {
+            trim(stripe);
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+    }
+
+    // Shrinks to three quarters of the bound so the sweep is paid once per quarter-stripe of inserts
+    private void trim(Map<String, AtomicLong> stripe) {
+        long now = System.nanoTime();
+        stripe.values().removeIf(bucket -> bucket.get() - now <= 0);
+        int target = maxKeysPerStripe * 3 / 4;
+        if (stripe.size() <= target) {
+            return;
+        }
+        long step = Math.max(period / 2, 1);
+        long horizon = now + step;
+        while (stripe.size() > target) {
+            Iterator<AtomicLong> it = stripe.values().iterator();
+            while (it.hasNext() && stripe.size() > target) {
+                if (it.next().get() - horizon <= 0) {
+                    it.remove();
+                }
+            }
+            horizon += step;
+        }
+    }
+
+    private Map<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,11 @@
+package com.todoapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A todo as written by an in-place update, with the previous values the stats delta needs.
+ */
+public interface TodoChange extends TodoRow {
+    boolean getWasCompleted();
+    LocalDateTime getPreviousDueDate();
+}
@@ -0,0 +1,26 @@
+package com.todoapp.repository;
+
+import com.todoapp.entity.TodoDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TodoDeletionRepository extends JpaRepository<TodoDeletion, Long> {
+
+    @Query("SELECT d.todoId FROM TodoDeletion d WHERE d.userId = :userId AND d.deletedAt > :since")
+    List<Long> findTodoIdsDeletedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT count(*) FROM (SELECT 1 FROM todo_deletions WHERE user_id = :userId AND deleted_at > :since " +
+            "LIMIT :cap) d", nativeQuery = true)
+    int countDeletedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since, @Param("cap") int cap);
+
+    @Modifying
+    @Query("DELETE FROM TodoDeletion d WHERE d.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
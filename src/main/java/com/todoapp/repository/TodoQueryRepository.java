@@ -0,0 +1,17 @@
+package com.todoapp.repository;
+
+import com.todoapp.dto.TodoDto;
+import com.todoapp.entity.Todo;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface TodoQueryRepository {
+
+    /**
+     * Runs {@code filter} as a single query selecting straight into the response shape.
+     */
+    List<TodoDto.Response> findResponses(Specification<Todo> filter, Sort sort, Limit limit);
+}
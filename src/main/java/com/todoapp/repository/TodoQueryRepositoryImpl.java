@@ -0,0 +1,40 @@
+package com.todoapp.repository;
+
+import com.todoapp.dto.TodoDto;
+import com.todoapp.entity.Todo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class TodoQueryRepositoryImpl implements TodoQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TodoDto.Response> findResponses(Specification<Todo> filter, Sort sort, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TodoDto.Response> query = cb.createQuery(TodoDto.Response.class);
+        Root<Todo> todo = query.from(Todo.class);
+
+        // Same shape as TodoRepository.RESPONSE
+        query.select(cb.construct(TodoDto.Response.class,
+                todo.get("id"), todo.get("title"), todo.get("description"), todo.get("completed"),
+                todo.get("priority"), todo.get("dueDate"), todo.get("createdAt"), todo.get("updatedAt"),
+                todo.get("completedAt"), todo.get("version")));
+        query.where(filter.toPredicate(todo, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, todo, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+}
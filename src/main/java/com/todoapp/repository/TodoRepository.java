@@ -1,31 +1,146 @@
 package com.todoapp.repository;
 
+import com.todoapp.dto.TodoDto;
 import com.todoapp.entity.Todo;
-import com.todoapp.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
-
-    List<Todo> findByUserOrderByCreatedAtDesc(User user);
-    
-    List<Todo> findByUserAndCompletedOrderByCreatedAtDesc(User user, boolean completed);
-    
-    Optional<Todo> findByIdAndUser(Long id, User user);
-    
-    @Query("SELECT t FROM Todo t WHERE t.user = :user ORDER BY " +
-           "CASE t.priority WHEN 'high' THEN 1 WHEN 'medium' THEN 2 WHEN 'low' THEN 3 END, " +
-           "t.createdAt DESC")
-    List<Todo> findByUserOrderByPriority(@Param("user") User user);
-    
-    long countByUserAndCompleted(User user, boolean completed);
-
-    @Query("SELECT t FROM Todo t WHERE t.user = :user AND t.dueDate < CURRENT_TIMESTAMP AND t.completed = false")
-    List<Todo> findOverdueTodos(@Param("user") User user);
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoQueryRepository {
+
+    // Read paths select straight into the response shape, skipping entity hydration and snapshots
+    String RESPONSE = "SELECT new com.todoapp.dto.TodoDto$Response(t.id, t.title, t.description, t.completed, " +
+            "t.priority, t.dueDate, t.createdAt, t.updatedAt, t.completedAt, t.version) FROM Todo t ";
+
+    @Query(RESPONSE + "WHERE t.id = :id AND t.user.id = :userId")
+    Optional<TodoDto.Response> findResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query(RESPONSE + "WHERE t.user.id = :userId AND t.updatedAt > :since ORDER BY t.updatedAt, t.id")
+    List<TodoDto.Response> findResponsesUpdatedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since,
+                                                     Limit limit);
+
+    // Keyset continuation of findResponsesUpdatedSince; the position already lies after since
+    @Query(RESPONSE + "WHERE t.user.id = :userId AND (t.updatedAt > :updatedAt OR (t.updatedAt = :updatedAt AND t.id > :id)) " +
+            "ORDER BY t.updatedAt, t.id")
+    List<TodoDto.Response> findResponsesUpdatedAfter(@Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt,
+                                                     @Param("id") Long id, Limit limit);
+
+    // Stops counting at cap, so checking a large backlog against a threshold stays cheap
+    @Query(value = "SELECT count(*) FROM (SELECT 1 FROM todos WHERE user_id = :userId AND updated_at > :since LIMIT :cap) t",
+            nativeQuery = true)
+    int countUpdatedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since, @Param("cap") int cap);
+
+    // Forward-only: rows are fetched from a server-side cursor in chunks of the fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE + "WHERE t.user.id = :userId AND t.id > :afterId ORDER BY t.id")
+    Stream<TodoDto.Response> streamForExport(@Param("userId") Long userId, @Param("afterId") long afterId);
+
+    // Each value is the top of a block of Todo.ID_ALLOCATION_SIZE ids, as Hibernate's pooled optimizer uses them
+    @Query(value = "SELECT nextval('todos_seq') FROM generate_series(1, :blocks)", nativeQuery = true)
+    List<Long> reserveIdBlocks(@Param("blocks") int blocks);
+
+    // Select list for TodoRow projections of native queries
+    String ROW = "t.id AS id, t.title AS title, t.description AS description, " +
+            "t.completed AS completed, t.priority AS priority, t.due_date AS \"dueDate\", " +
+            "t.created_at AS \"createdAt\", t.updated_at AS \"updatedAt\", t.completed_at AS \"completedAt\", " +
+            "t.version AS version";
+
+    // Native because ranking reads the generated search_vector column, which Todo doesn't map
+    String SEARCH = "SELECT " + ROW + ", ts_rank(t.search_vector, q) AS rank " +
+            "FROM todos t, to_tsquery('simple', :query) q " +
+            "WHERE t.user_id = :userId AND t.search_vector @@ q";
+
+    @Query(value = SEARCH + " ORDER BY rank DESC, t.id DESC", nativeQuery = true)
+    List<TodoSearchHit> search(@Param("userId") Long userId, @Param("query") String query, Limit limit);
+
+    @Query(value = "SELECT * FROM (" + SEARCH + ") hit " +
+                   "WHERE hit.rank < :rank OR (hit.rank = :rank AND hit.id < :id) " +
+                   "ORDER BY hit.rank DESC, hit.id DESC", nativeQuery = true)
+    List<TodoSearchHit> searchAfter(@Param("userId") Long userId,
+                                    @Param("query") String query,
+                                    @Param("rank") float rank,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
+    /*
+     * In-place updates run as one statement: lock the row (re-checking the optional expected
+     * version), update it, bump the owner's list version, and return the new row along with the
+     * previous values. A missing todo or a stale version returns no row.
+     */
+    String LOCK_FOR_CHANGE = "WITH old AS (SELECT id, completed, due_date FROM todos " +
+            "WHERE id = :id AND user_id = :userId AND (CAST(:version AS bigint) IS NULL OR version = :version) " +
+            "FOR UPDATE), ";
+
+    String RETURN_CHANGE = " FROM old WHERE t.id = old.id " +
+            "RETURNING " + ROW + ", old.completed AS \"wasCompleted\", old.due_date AS \"previousDueDate\"), " +
+            "touched AS (UPDATE users SET todo_list_version = todo_list_version + 1 " +
+            "WHERE id = :userId AND EXISTS (SELECT 1 FROM changed)) " +
+            "SELECT * FROM changed";
+
+    @Query(value = LOCK_FOR_CHANGE +
+            "changed AS (UPDATE todos t SET completed = NOT t.completed, " +
+            "completed_at = CASE WHEN t.completed THEN NULL ELSE CAST(:now AS timestamp) END, " +
+            "updated_at = :now, version = t.version + 1" +
+            RETURN_CHANGE, nativeQuery = true)
+    Optional<TodoChange> toggle(@Param("id") Long id,
+                                @Param("userId") Long userId,
+                                @Param("version") Long version,
+                                @Param("now") LocalDateTime now);
+
+    // Null arguments leave the column unchanged
+    @Query(value = LOCK_FOR_CHANGE +
+            "changed AS (UPDATE todos t SET title = COALESCE(CAST(:title AS varchar), t.title), " +
+            "description = COALESCE(CAST(:description AS text), t.description), " +
+            "completed = COALESCE(CAST(:completed AS boolean), t.completed), " +
+            "completed_at = CASE WHEN CAST(:completed AS boolean) IS NULL OR CAST(:completed AS boolean) = t.completed " +
+            "THEN t.completed_at WHEN CAST(:completed AS boolean) THEN :now ELSE NULL END, " +
+            "priority = COALESCE(CAST(:priority AS smallint), t.priority), " +
+            "due_date = COALESCE(CAST(:dueDate AS timestamp), t.due_date), " +
+            "updated_at = :now, version = t.version + 1" +
+            RETURN_CHANGE, nativeQuery = true)
+    Optional<TodoChange> patch(@Param("id") Long id,
+                               @Param("userId") Long userId,
+                               @Param("version") Long version,
+                               @Param("title") String title,
+                               @Param("description") String description,
+                               @Param("completed") Boolean completed,
+                               @Param("priority") Short priority,
+                               @Param("dueDate") LocalDateTime dueDate,
+                               @Param("now") LocalDateTime now);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    Optional<Todo> findByIdAndUserId(Long id, Long userId);
+
+    List<Todo> findByIdInAndUserId(Collection<Long> ids, Long userId);
+
+    @Query("SELECT COUNT(t) AS total, " +
+           "COALESCE(SUM(CASE WHEN t.completed = true THEN 1 ELSE 0 END), 0) AS completed, " +
+           "COALESCE(SUM(CASE WHEN t.completed = false AND t.dueDate < :now THEN 1 ELSE 0 END), 0) AS overdue, " +
+           "COALESCE(SUM(CASE WHEN t.completed = false AND t.dueDate >= :now " +
+           "AND t.dueDate < :endOfToday THEN 1 ELSE 0 END), 0) AS dueToday, " +
+           "COALESCE(SUM(CASE WHEN t.completed = false AND t.dueDate >= :endOfToday " +
+           "AND t.dueDate < :endOfWeek THEN 1 ELSE 0 END), 0) AS dueNext7Days, " +
+           "COALESCE(SUM(CASE WHEN t.completed = false AND t.dueDate >= :endOfWeek THEN 1 ELSE 0 END), 0) AS dueLater, " +
+           "COALESCE(SUM(CASE WHEN t.completed = false AND t.dueDate IS NULL THEN 1 ELSE 0 END), 0) AS noDueDate, " +
+           "COALESCE(SUM(CASE WHEN t.completed = false AND t.priority = com.todoapp.entity.Priority.HIGH THEN 1 ELSE 0 END), 0) AS highPending, " +
+           "COALESCE(SUM(CASE WHEN t.completed = false AND t.priority = com.todoapp.entity.Priority.MEDIUM THEN 1 ELSE 0 END), 0) AS mediumPending, " +
+           "COALESCE(SUM(CASE WHEN t.completed = false AND t.priority = com.todoapp.entity.Priority.LOW THEN 1 ELSE 0 END), 0) AS lowPending " +
+           "FROM Todo t WHERE t.user.id = :userId")
+    TodoStatsView aggregateStats(@Param("userId") Long userId,
+                                 @Param("now") LocalDateTime now,
+                                 @Param("endOfToday") LocalDateTime endOfToday,
+                                 @Param("endOfWeek") LocalDateTime endOfWeek);
 }
@@ -0,0 +1,19 @@
+package com.todoapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a todo as read by native queries; aliases must match the getter names.
+ */
+public interface TodoRow {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    boolean getCompleted();
+    short getPriority();
+    LocalDateTime getDueDate();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    LocalDateTime getCompletedAt();
+    long getVersion();
+}
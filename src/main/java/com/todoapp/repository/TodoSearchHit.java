@@ -0,0 +1,5 @@
+package com.todoapp.repository;
+
+public interface TodoSearchHit extends TodoRow {
+    float getRank();
+}
@@ -0,0 +1,72 @@
+package com.todoapp.repository;
+
+import com.todoapp.entity.Priority;
+import com.todoapp.entity.Todo;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Composable todo predicates. Lower bounds are inclusive, upper bounds exclusive.
+ */
+public final class TodoSpecifications {
+
+    private TodoSpecifications() {
+    }
+
+    public static Specification<Todo> ownedBy(Long userId) {
+        return (todo, query, cb) -> cb.equal(todo.get("user").get("id"), userId);
+    }
+
+    public static Specification<Todo> completed(boolean completed) {
+        return (todo, query, cb) -> cb.equal(todo.get("completed"), completed);
+    }
+
+    public static Specification<Todo> priorityIn(Collection<Priority> priorities) {
+        return (todo, query, cb) -> todo.get("priority").in(priorities);
+    }
+
+    public static Specification<Todo> dueFrom(LocalDateTime from) {
+        return (todo, query, cb) -> cb.greaterThanOrEqualTo(todo.get("dueDate"), from);
+    }
+
+    public static Specification<Todo> dueBefore(LocalDateTime before) {
+        return (todo, query, cb) -> cb.lessThan(todo.get("dueDate"), before);
+    }
+
+    public static Specification<Todo> createdFrom(LocalDateTime from) {
+        return (todo, query, cb) -> cb.greaterThanOrEqualTo(todo.get("createdAt"), from);
+    }
+
+    public static Specification<Todo> createdBefore(LocalDateTime before) {
+        return (todo, query, cb) -> cb.lessThan(todo.get("createdAt"), before);
+    }
+
+    // Pending with a due date in the past, as in the stats. The explicit null check keeps not(overdue)
+    // from dropping todos without a due date under SQL's three-valued logic.
+    public static Specification<Todo> overdue(LocalDateTime now) {
+        return (todo, query, cb) -> cb.and(
+                cb.equal(todo.get("completed"), false),
+                cb.isNotNull(todo.get("dueDate")),
+                cb.lessThan(todo.get("dueDate"), now));
+    }
+
+    /**
+     * Keyset position for {@code ORDER BY createdAt DESC, id DESC}.
+     */
+    public static Specification<Todo> afterCreated(LocalDateTime createdAt, Long id) {
+        return (todo, query, cb) -> cb.or(
+                cb.lessThan(todo.get("createdAt"), createdAt),
+                cb.and(cb.equal(todo.get("createdAt"), createdAt), cb.lessThan(todo.get("id"), id)));
+    }
+
+    /**
+     * Keyset position for {@code ORDER BY priority, createdAt DESC, id DESC}.
+     */
+    public static Specification<Todo> afterPriority(Priority priority, LocalDateTime createdAt, Long id) {
+        return (todo, query, cb) -> cb.or(
+                cb.greaterThan(todo.get("priority"), priority),
+                cb.and(cb.equal(todo.get("priority"), priority), afterCreated(createdAt, id).toPredicate(todo, query, cb)));
+    }
+}
@@ -0,0 +1,14 @@
+package com.todoapp.repository;
+
+public interface TodoStatsView {
+    long getTotal();
+    long getCompleted();
+    long getOverdue();
+    long getDueToday();
+    long getDueNext7Days();
+    long getDueLater();
+    long getNoDueDate();
+    long getHighPending();
+    long getMediumPending();
+    long getLowPending();
+}
@@ -1,13 +1,45 @@
 package com.todoapp.repository;
 
+import com.todoapp.dto.AuthDto;
 import com.todoapp.entity.User;
+import com.todoapp.entity.UserRole;
+import com.todoapp.security.AuthenticatedUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("SELECT new com.todoapp.security.AuthenticatedUser(u.id, u.email, u.role) FROM User u WHERE u.email = :email")
+    Optional<AuthenticatedUser> findPrincipalByEmail(@Param("email") String email);
+
+    @Query("SELECT new com.todoapp.dto.AuthDto$UserDto(u.id, u.name, u.email) FROM User u WHERE u.id = :id")
+    Optional<AuthDto.UserDto> findUserDtoById(@Param("id") Long id);
+
+    // todo_list_version isn't mapped on User, so saving a loaded User can never write back a stale value
+    @Query(value = "SELECT todo_list_version FROM users WHERE id = :id", nativeQuery = true)
+    long findTodoListVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE users SET todo_list_version = todo_list_version + 1 WHERE id = :id", nativeQuery = true)
+    void incrementTodoListVersion(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password, u.updatedAt = :now WHERE u.id = :id")
+    void updatePassword(@Param("id") Long id, @Param("password") String password, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.role = :role, u.updatedAt = :now WHERE u.id = :id")
+    int updateRole(@Param("id") Long id, @Param("role") UserRole role, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,54 @@
+package com.todoapp.security;
+
+import com.todoapp.entity.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Immutable principal kept in the security context for token-authenticated requests. It carries
+ * only what request handling needs, so nothing downstream can lazily load through the User entity.
+ */
+public record AuthenticatedUser(Long id, String email, Collection<? extends GrantedAuthority> authorities)
+        implements UserDetails {
+
+    public AuthenticatedUser(Long id, String email, UserRole role) {
+        this(id, email, role.getAuthorities());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -1,27 +1,41 @@
 package com.todoapp.security;
 
+import com.todoapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository,
+                                   PrincipalCache principalCache, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.cachedTimer = verifyTimer("cached", meterRegistry);
+        this.verifiedTimer = verifyTimer("verified", meterRegistry);
+        this.rejectedTimer = verifyTimer("rejected", meterRegistry);
+    }
     
     @Override
     protected void doFilterInternal(
@@ -31,7 +45,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -41,16 +54,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         
         try {
-            userEmail = jwtService.extractUsername(jwt);
-            
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                long start = System.nanoTime();
+                AuthenticatedUser principal = principalCache.get(jwt);
+
+                if (principal != null) {
+                    cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                } else {
+                    JwtService.VerifiedToken verified = verify(jwt, start);
+
+                    if (verified.subject() != null) {
+                        principal = userRepository.findPrincipalByEmail(verified.subject()).orElse(null);
+                        if (principal != null) {
+                            principalCache.put(jwt, principal, verified.expiration().getTime());
+                        }
+                    }
+                }
+
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            principal.getAuthorities()
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -62,4 +87,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+
+    private JwtService.VerifiedToken verify(String jwt, long start) {
+        try {
+            JwtService.VerifiedToken verified = jwtService.verify(jwt);
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return verified;
+        } catch (RuntimeException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer verifyTimer(String result, MeterRegistry registry) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Bearer token resolution time; cached tokens skip signature verification")
+                .tag("result", result)
+                .register(registry);
+    }
 }
@@ -1,35 +1,75 @@
 package com.todoapp.security;
 
+import com.todoapp.cache.BoundedCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Service
-public class JwtService {
+public class JwtService implements MeterBinder {
     
     @Value("${app.jwt.secret}")
     private String secretKey;
     
     @Value("${app.jwt.expiration}")
     private long jwtExpiration;
-    
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+
+    @Value("${app.jwt.verified-cache.max-size}")
+    private int verifiedCacheSize;
+
+    @Value("${app.jwt.verified-cache.ttl}")
+    private Duration verifiedCacheTtl;
+
+    // Both are immutable and safe to share across request threads
+    private SecretKey signInKey;
+    private JwtParser parser;
+
+    private BoundedCache<String, VerifiedToken> verifiedTokens;
+
+    public record VerifiedToken(String subject, Date expiration) {
     }
-    
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+        verifiedTokens = new BoundedCache<>(verifiedCacheSize, verifiedCacheTtl);
+    }
+
+    /**
+     * Checks signature and expiry with a single parse. Throws a {@code JwtException} if the token
+     * is invalid or expired.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token has no expiration");
+        }
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration());
+        verifiedTokens.put(token, verified, verified.expiration().getTime());
+        return verified;
     }
     
     public String generateToken(UserDetails userDetails) {
@@ -46,33 +86,16 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), Jwts.SIG.HS256)
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
     
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-    
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-    
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
-    
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        verifiedTokens.bindTo(registry, "jwt.verified");
     }
 }
@@ -0,0 +1,46 @@
+package com.todoapp.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Times every hash and verification, tagged with the configured settings, so the cost of a setting
+ * can be read off a running node when tuning it.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, String settings, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer("encode", settings, registry);
+        this.matchesTimer = timer("matches", settings, registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return Boolean.TRUE.equals(matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static Timer timer(String operation, String settings, MeterRegistry registry) {
+        return Timer.builder("auth.password.hash")
+                .description("Password hashing and verification time")
+                .tag("operation", operation)
+                .tag("settings", settings)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
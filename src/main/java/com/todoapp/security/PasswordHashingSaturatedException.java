@@ -0,0 +1,11 @@
+package com.todoapp.security;
+
+/**
+ * The password hashing pool and its queue are full; the caller should retry shortly.
+ */
+public class PasswordHashingSaturatedException extends RuntimeException {
+
+    public PasswordHashingSaturatedException() {
+        super("Authentication is busy, try again shortly");
+    }
+}
@@ -0,0 +1,43 @@
+package com.todoapp.security;
+
+import com.todoapp.cache.BoundedCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Authenticated principals keyed by the bearer token they were resolved from. An entry never
+ * outlives its token's expiry. Code that changes what a principal holds (email or role) calls
+ * {@link #evictUser} so this node drops the user's entries at once; the TTL caps how long a change
+ * made on another node, or directly in the database, can go unseen.
+ */
+@Component
+public class PrincipalCache implements MeterBinder {
+
+    private final BoundedCache<String, AuthenticatedUser> cache;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.max-size}") int maxSize,
+                          @Value("${app.security.principal-cache.ttl}") Duration ttl) {
+        this.cache = new BoundedCache<>(maxSize, ttl);
+    }
+
+    public AuthenticatedUser get(String token) {
+        return cache.get(token);
+    }
+
+    public void put(String token, AuthenticatedUser principal, long tokenExpiresAtMillis) {
+        cache.put(token, principal, tokenExpiresAtMillis);
+    }
+
+    public void evictUser(Long userId) {
+        cache.invalidateIf((token, principal) -> principal.id().equals(userId));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry, "auth.principals");
+    }
+}
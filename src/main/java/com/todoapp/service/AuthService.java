@@ -2,14 +2,21 @@ package com.todoapp.service;
 
 import com.todoapp.dto.AuthDto;
 import com.todoapp.entity.User;
+import com.todoapp.entity.UserRole;
+import com.todoapp.ratelimit.AuthRateLimiter;
 import com.todoapp.repository.UserRepository;
 import com.todoapp.security.JwtService;
+import com.todoapp.security.PasswordHashingExecutor;
+import com.todoapp.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -18,6 +25,9 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor passwordHashing;
+    private final AuthRateLimiter authRateLimiter;
+    private final PrincipalCache principalCache;
     
     public AuthDto.AuthResponse register(AuthDto.SignUpRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -27,7 +37,7 @@ public class AuthService {
         User user = User.builder()
                 .name(request.getName())
                 .email(request.getEmail().toLowerCase())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashing.execute(() -> passwordEncoder.encode(request.getPassword())))
                 .build();
         
         userRepository.save(user);
@@ -46,14 +56,23 @@ public class AuthService {
     }
     
     public AuthDto.AuthResponse login(AuthDto.LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail().toLowerCase(),
-                        request.getPassword()
-                )
-        );
+        String email = request.getEmail().toLowerCase();
+        // Only failed attempts count against the account; anything else hands the token back
+        authRateLimiter.acquireForAccount(email);
+        boolean failed = false;
+        try {
+            passwordHashing.execute(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(email, request.getPassword())));
+        } catch (AuthenticationException e) {
+            failed = true;
+            throw e;
+        } finally {
+            if (!failed) {
+                authRateLimiter.releaseForAccount(email);
+            }
+        }
         
-        User user = userRepository.findByEmail(request.getEmail().toLowerCase())
+        User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         String token = jwtService.generateToken(user);
@@ -69,11 +88,19 @@ public class AuthService {
                 .build();
     }
     
-    public AuthDto.UserDto getCurrentUser(User user) {
-        return AuthDto.UserDto.builder()
-                .id(user.getId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .build();
+    public AuthDto.UserDto getCurrentUser(Long userId) {
+        return userRepository.findUserDtoById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+    
+    /**
+     * Tokens already issued to the user pick up the new role on their next request here; other
+     * nodes see it once their cached principal expires.
+     */
+    public void updateRole(Long userId, UserRole role) {
+        if (userRepository.updateRole(userId, role, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        principalCache.evictUser(userId);
     }
 }
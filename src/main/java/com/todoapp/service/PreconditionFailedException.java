@@ -0,0 +1,11 @@
+package com.todoapp.service;
+
+/**
+ * A conditional write whose If-Match no longer matches the current version of the resource.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,165 @@
+package com.todoapp.service;
+
+import com.todoapp.cache.BoundedCache;
+import com.todoapp.dto.TodoDto;
+import com.todoapp.entity.Todo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user cache of {@link TodoDto.StatsResponse}. Mutations adjust cached counters by delta once
+ * their transaction commits. Overdue/upcoming drift as due dates pass, which the TTL bounds.
+ * <p>
+ * A load only caches its result if no mutation of the user's stripe committed or was committing
+ * while it ran; otherwise the aggregate may already include a delta that is then applied again.
+ */
+@Component
+public class StatsCache implements MeterBinder {
+
+    private static final int STRIPES = 64;
+
+    private final BoundedCache<Long, TodoDto.StatsResponse> cache;
+
+    // Per stripe: versions are bumped when a change is applied, committing counts the mutations
+    // between beforeCommit and completion. Both are read and written under the stripe's lock.
+    private final long[] versions = new long[STRIPES];
+    private final int[] committing = new int[STRIPES];
+    private final Object[] locks = new Object[STRIPES];
+
+    public StatsCache(@Value("${app.stats.cache.max-size}") int maxSize,
+                      @Value("${app.stats.cache.ttl}") Duration ttl) {
+        this.cache = new BoundedCache<>(maxSize, ttl);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public record Footprint(boolean completed, LocalDateTime dueDate) {
+        public static Footprint of(Todo todo) {
+            return new Footprint(todo.isCompleted(), todo.getDueDate());
+        }
+    }
+
+    public TodoDto.StatsResponse get(Long userId) {
+        return cache.get(userId);
+    }
+
+    public long version(Long userId) {
+        int stripe = stripe(userId);
+        synchronized (locks[stripe]) {
+            return versions[stripe];
+        }
+    }
+
+    /**
+     * Caches a load that started at {@code version}, unless a mutation was applied since or is
+     * committing now.
+     */
+    public void put(Long userId, long version, TodoDto.StatsResponse stats) {
+        int stripe = stripe(userId);
+        synchronized (locks[stripe]) {
+            if (versions[stripe] == version && committing[stripe] == 0) {
+                cache.put(userId, stats);
+            }
+        }
+    }
+
+    /**
+     * Records a todo going from {@code before} to {@code after}; null means it didn't exist.
+     */
+    public void recordChange(Long userId, Footprint before, Footprint after) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(userId, before, after);
+            return;
+        }
+        int stripe = stripe(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            // Loads from here on may see the committed rows, so they must not be cached
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                synchronized (locks[stripe]) {
+                    committing[stripe]++;
+                    counted = true;
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (locks[stripe]) {
+                    if (status == STATUS_COMMITTED) {
+                        apply(userId, before, after);
+                    }
+                    if (counted) {
+                        committing[stripe]--;
+                    }
+                }
+            }
+        });
+    }
+
+    public void invalidate(Long userId) {
+        int stripe = stripe(userId);
+        synchronized (locks[stripe]) {
+            versions[stripe]++;
+            cache.invalidate(userId);
+        }
+    }
+
+    private void apply(Long userId, Footprint before, Footprint after) {
+        int stripe = stripe(userId);
+        synchronized (locks[stripe]) {
+            versions[stripe]++;
+            LocalDateTime now = LocalDateTime.now();
+            cache.update(userId, stats -> {
+                TodoDto.StatsResponse next = TodoDto.StatsResponse.builder()
+                        .total(stats.getTotal())
+                        .completed(stats.getCompleted())
+                        .pending(stats.getPending())
+                        .overdue(stats.getOverdue())
+                        .upcoming(stats.getUpcoming())
+                        .build();
+                adjust(next, before, now, -1);
+                adjust(next, after, now, 1);
+                return next;
+            });
+        }
+    }
+
+    private static void adjust(TodoDto.StatsResponse stats, Footprint footprint, LocalDateTime now, int sign) {
+        if (footprint == null) {
+            return;
+        }
+        stats.setTotal(stats.getTotal() + sign);
+        if (footprint.completed()) {
+            stats.setCompleted(stats.getCompleted() + sign);
+            return;
+        }
+        stats.setPending(stats.getPending() + sign);
+        if (footprint.dueDate() == null) {
+            return;
+        }
+        if (footprint.dueDate().isBefore(now)) {
+            stats.setOverdue(stats.getOverdue() + sign);
+        } else {
+            stats.setUpcoming(stats.getUpcoming() + sign);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (STRIPES - 1));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry, "todo.stats");
+    }
+}
@@ -1,9 +1,72 @@
 package com.todoapp.service;
 
+import com.todoapp.dto.StatsDto;
+import com.todoapp.dto.TodoDto;
+import com.todoapp.repository.TodoRepository;
+import com.todoapp.repository.TodoStatsView;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class StatsService {
+
+    private final TodoRepository todoRepository;
+    private final StatsCache statsCache;
+
+    @Transactional(readOnly = true)
+    public TodoDto.StatsResponse getStats(Long userId) {
+        TodoDto.StatsResponse cached = statsCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = statsCache.version(userId);
+        TodoStatsView stats = aggregate(userId);
+        TodoDto.StatsResponse response = TodoDto.StatsResponse.builder()
+                .total(stats.getTotal())
+                .completed(stats.getCompleted())
+                .pending(stats.getTotal() - stats.getCompleted())
+                .overdue(stats.getOverdue())
+                .upcoming(upcoming(stats))
+                .build();
+        statsCache.put(userId, version, response);
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public StatsDto getBreakdown(Long userId) {
+        TodoStatsView stats = aggregate(userId);
+        return StatsDto.builder()
+                .total(stats.getTotal())
+                .completed(stats.getCompleted())
+                .pending(stats.getTotal() - stats.getCompleted())
+                .overdue(stats.getOverdue())
+                .upcoming(upcoming(stats))
+                .byPriority(List.of(
+                        new StatsDto.Stat("high", stats.getHighPending()),
+                        new StatsDto.Stat("medium", stats.getMediumPending()),
+                        new StatsDto.Stat("low", stats.getLowPending())))
+                .byDueDate(List.of(
+                        new StatsDto.Stat("overdue", stats.getOverdue()),
+                        new StatsDto.Stat("today", stats.getDueToday()),
+                        new StatsDto.Stat("next7Days", stats.getDueNext7Days()),
+                        new StatsDto.Stat("later", stats.getDueLater()),
+                        new StatsDto.Stat("none", stats.getNoDueDate())))
+                .build();
+    }
+
+    private TodoStatsView aggregate(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime endOfToday = now.toLocalDate().plusDays(1).atStartOfDay();
+        return todoRepository.aggregateStats(userId, now, endOfToday, endOfToday.plusDays(7));
+    }
+
+    private long upcoming(TodoStatsView stats) {
+        return stats.getDueToday() + stats.getDueNext7Days() + stats.getDueLater();
+    }
 }
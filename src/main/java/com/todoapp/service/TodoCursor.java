@@ -0,0 +1,71 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TodoDto;
+import com.todoapp.entity.Priority;
+import com.todoapp.repository.TodoSearchHit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paged todo listings. The token carries the sort it was issued for,
+ * so a cursor from one ordering can't be replayed against another. {@code timestamp} is the
+ * created time, or the updated time for the change feed.
+ */
+public record TodoCursor(Sort sort, Priority priority, Float rank, LocalDateTime timestamp, Long id) {
+
+    public enum Sort {
+        CREATED("c"),
+        PRIORITY("p"),
+        RANK("r"),
+        UPDATED("u");
+
+        private final String code;
+
+        Sort(String code) {
+            this.code = code;
+        }
+    }
+
+    public static TodoCursor byCreatedAt(TodoDto.Response todo) {
+        return new TodoCursor(Sort.CREATED, null, null, todo.getCreatedAt(), todo.getId());
+    }
+
+    public static TodoCursor byPriority(TodoDto.Response todo) {
+        return new TodoCursor(Sort.PRIORITY, todo.getPriority(), null, todo.getCreatedAt(), todo.getId());
+    }
+
+    public static TodoCursor byRank(TodoSearchHit hit) {
+        return new TodoCursor(Sort.RANK, null, hit.getRank(), null, hit.getId());
+    }
+
+    public static TodoCursor byUpdatedAt(TodoDto.Response todo) {
+        return new TodoCursor(Sort.UPDATED, null, null, todo.getUpdatedAt(), todo.getId());
+    }
+
+    public String encode() {
+        String raw = sort.code + "|" + (priority != null ? priority.getCode() : "") + "|" + (rank != null ? rank : "")
+                + "|" + (timestamp != null ? timestamp : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TodoCursor decode(String token, Sort expected) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 5 || !expected.code.equals(parts[0])) {
+                throw new IllegalArgumentException(raw);
+            }
+            Priority priority = parts[1].isEmpty() ? null : Priority.fromCode(Short.parseShort(parts[1]));
+            Float rank = parts[2].isEmpty() ? null : Float.parseFloat(parts[2]);
+            LocalDateTime timestamp = parts[3].isEmpty() ? null : LocalDateTime.parse(parts[3]);
+            return new TodoCursor(expected, priority, rank, timestamp, Long.parseLong(parts[4]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TodoDto;
+import com.todoapp.repository.TodoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's todos in id order straight from a database cursor, so memory stays flat however
+ * large the account is. A client that loses the connection resumes with the last id it received.
+ */
+@Slf4j
+@Service
+public class TodoExportService {
+
+    private static final String CSV_HEADER = "id,title,description,completed,priority,dueDate,createdAt,updatedAt,completedAt";
+
+    private final TodoRepository todoRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public TodoExportService(TodoRepository todoRepository, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.todoRepository = todoRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setName("TodoExportService.export");
+    }
+
+    public StreamingResponseBody export(Long userId, TodoFileFormat format, Long afterId) {
+        long after = afterId != null ? afterId : 0L;
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            if (format == TodoFileFormat.CSV && after == 0L) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            try {
+                // The PostgreSQL driver only honours the fetch size inside a transaction
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<TodoDto.Response> todos = todoRepository.streamForExport(userId, after)) {
+                        todos.forEach(todo -> write(writer, format, todo));
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.debug("Export for user {} aborted by the client", userId);
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    private void write(Writer writer, TodoFileFormat format, TodoDto.Response todo) {
+        try {
+            if (format == TodoFileFormat.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(todo));
+            } else {
+                writer.write(todo.getId() + "," + csv(todo.getTitle()) + "," + csv(todo.getDescription()) + ","
+                        + todo.isCompleted() + "," + todo.getPriority().getValue() + ","
+                        + csv(todo.getDueDate()) + "," + csv(todo.getCreatedAt()) + ","
+                        + csv(todo.getUpdatedAt()) + "," + csv(todo.getCompletedAt()));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,43 @@
+package com.todoapp.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * File formats for bulk export and import. Both are line oriented so either side can stream them.
+ */
+public enum TodoFileFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    TodoFileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFilename() {
+        return "todos." + extension;
+    }
+
+    public static TodoFileFormat fromName(String name) {
+        return CSV.extension.equalsIgnoreCase(name) ? CSV : NDJSON;
+    }
+
+    public static TodoFileFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            for (TodoFileFormat format : values()) {
+                if (mediaType.isCompatibleWith(MediaType.parseMediaType(format.contentType))) {
+                    return format;
+                }
+            }
+        }
+        throw new RuntimeException("Content-Type must be application/x-ndjson or text/csv");
+    }
+}
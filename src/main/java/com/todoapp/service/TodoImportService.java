@@ -0,0 +1,389 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TodoDto;
+import com.todoapp.entity.Priority;
+import com.todoapp.entity.Todo;
+import com.todoapp.repository.TodoRepository;
+import com.todoapp.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads todos from an NDJSON or CSV upload. The body is parsed as it arrives and rows are written
+ * with COPY in chunks, each in its own transaction, so memory is bounded by the chunk size and a
+ * failed chunk doesn't undo the ones before it. Invalid rows are reported by line and skipped.
+ * Rows take the same fields as a create plus completed and completedAt, so an export imports back
+ * with its completion state.
+ */
+@Slf4j
+@Service
+public class TodoImportService {
+
+    private static final String COPY_SQL = "COPY todos (id, user_id, title, description, completed, priority, " +
+            "due_date, completed_at, created_at, updated_at) FROM STDIN WITH (FORMAT csv)";
+
+    private final TodoRepository todoRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final StatsCache statsCache;
+    private final TodoStreamService todoStreamService;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public TodoImportService(TodoRepository todoRepository, UserRepository userRepository, JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper, Validator validator, StatsCache statsCache, TodoStreamService todoStreamService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.import.chunk-size}") int chunkSize,
+                             @Value("${app.import.max-errors}") int maxErrors) {
+        this.todoRepository = todoRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.statsCache = statsCache;
+        this.todoStreamService = todoStreamService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setName("TodoImportService.importTodos");
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    private record Row(long line, ImportedTodo request) {
+    }
+
+    /**
+     * A create plus completion state. completed defaults to whether completedAt is set; a completed
+     * row without completedAt is stamped with the import time, as a toggle would.
+     */
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    static class ImportedTodo extends TodoDto.CreateRequest {
+        private Boolean completed;
+        private LocalDateTime completedAt;
+
+        boolean isDone() {
+            return completed != null ? completed : completedAt != null;
+        }
+    }
+
+    private static class InvalidRowException extends RuntimeException {
+        InvalidRowException(String message) {
+            super(message);
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * Returns the next row, or null at the end of the input. A row that can't be parsed throws
+         * {@link InvalidRowException}; reading may continue with the row after it.
+         */
+        ImportedTodo next() throws IOException;
+
+        long line();
+    }
+
+    public TodoDto.ImportResponse importTodos(Long userId, TodoFileFormat format, InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        RowReader rows = format == TodoFileFormat.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+        TodoDto.ImportResponse result = TodoDto.ImportResponse.builder()
+                .errors(new ArrayList<>())
+                .build();
+
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            ImportedTodo request;
+            try {
+                request = rows.next();
+                if (request == null) {
+                    break;
+                }
+                validate(request);
+            } catch (InvalidRowException e) {
+                result.setProcessed(result.getProcessed() + 1);
+                fail(result, rows.line(), e.getMessage(), 1);
+                continue;
+            }
+            result.setProcessed(result.getProcessed() + 1);
+            chunk.add(new Row(rows.line(), request));
+            if (chunk.size() == chunkSize) {
+                load(userId, chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            load(userId, chunk, result);
+        }
+
+        log.info("Imported {} of {} todos for user {}", result.getImported(), result.getProcessed(), userId);
+        return result;
+    }
+
+    private void validate(ImportedTodo request) {
+        Set<ConstraintViolation<ImportedTodo>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidRowException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        // PostgreSQL text can't hold NUL; catching it here keeps one row from failing its whole chunk
+        if (request.getTitle().indexOf('\0') >= 0
+                || (request.getDescription() != null && request.getDescription().indexOf('\0') >= 0)) {
+            throw new InvalidRowException("Text must not contain NUL characters");
+        }
+    }
+
+    private void load(Long userId, List<Row> chunk, TodoDto.ImportResponse result) {
+        try {
+            chunkTransaction.executeWithoutResult(status -> copy(userId, chunk));
+            result.setImported(result.getImported() + chunk.size());
+        } catch (DataAccessException e) {
+            log.warn("Import chunk for user {} failed", userId, e);
+            fail(result, chunk.get(0).line(), "Lines " + chunk.get(0).line() + "-" + chunk.get(chunk.size() - 1).line()
+                    + " were not imported: " + e.getMostSpecificCause().getMessage(), chunk.size());
+        }
+        statsCache.invalidate(userId);
+        todoStreamService.notify(userId, "import", "{\"processed\":" + result.getProcessed()
+                + ",\"imported\":" + result.getImported() + ",\"failed\":" + result.getFailed() + "}");
+    }
+
+    private void copy(Long userId, List<Row> chunk) {
+        int blockSize = Todo.ID_ALLOCATION_SIZE;
+        List<Long> blocks = todoRepository.reserveIdBlocks((chunk.size() + blockSize - 1) / blockSize);
+        LocalDateTime importedAt = LocalDateTime.now();
+        String now = importedAt.toString();
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                for (int i = 0; i < chunk.size(); i++) {
+                    ImportedTodo request = chunk.get(i).request();
+                    long id = blocks.get(i / blockSize) - blockSize + 1 + i % blockSize;
+                    Priority priority = request.getPriority() != null ? request.getPriority() : Priority.MEDIUM;
+                    boolean done = request.isDone();
+                    LocalDateTime completedAt = !done ? null
+                            : request.getCompletedAt() != null ? request.getCompletedAt() : importedAt;
+                    byte[] line = (id + "," + userId + "," + csv(request.getTitle()) + ","
+                            + csv(request.getDescription()) + "," + done + "," + priority.getCode() + ","
+                            + csv(request.getDueDate()) + "," + csv(completedAt) + "," + now + "," + now + "\n")
+                            .getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(line, 0, line.length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        userRepository.incrementTodoListVersion(userId);
+    }
+
+    private void fail(TodoDto.ImportResponse result, long line, String message, int rows) {
+        result.setFailed(result.getFailed() + rows);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new TodoDto.ImportError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    // COPY reads an unquoted empty field as NULL, so every value is quoted
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        return '"' + value.toString().replace("\"", "\"\"") + '"';
+    }
+
+    private class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportedTodo next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+            try {
+                return objectMapper.readValue(text, ImportedTodo.class);
+            } catch (JsonProcessingException e) {
+                throw new InvalidRowException(e.getCause() instanceof IllegalArgumentException
+                        ? e.getCause().getMessage()
+                        : e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+
+    /**
+     * RFC 4180 reader. Columns are matched by header name, so files written by the export endpoint
+     * import as-is; columns other than title, description, priority, dueDate, completed and
+     * completedAt are ignored.
+     */
+    private static class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line;
+        private long nextLine = 1;
+
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim(), i);
+                }
+            }
+            if (!columns.containsKey("title")) {
+                throw new RuntimeException("CSV header must include a title column");
+            }
+        }
+
+        @Override
+        public ImportedTodo next() throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+            String priority = field(fields, "priority");
+            String completed = field(fields, "completed");
+            ImportedTodo request = new ImportedTodo();
+            request.setTitle(field(fields, "title"));
+            request.setDescription(field(fields, "description"));
+            try {
+                if (priority != null) {
+                    request.setPriority(Priority.fromValue(priority));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRowException(e.getMessage());
+            }
+            if (completed != null) {
+                if (!completed.equalsIgnoreCase("true") && !completed.equalsIgnoreCase("false")) {
+                    throw new InvalidRowException("Invalid completed: " + completed);
+                }
+                request.setCompleted(Boolean.parseBoolean(completed));
+            }
+            request.setDueDate(dateTime(fields, "dueDate"));
+            request.setCompletedAt(dateTime(fields, "completedAt"));
+            return request;
+        }
+
+        private LocalDateTime dateTime(List<String> fields, String column) {
+            String value = field(fields, column);
+            try {
+                return value != null ? LocalDateTime.parse(value) : null;
+            } catch (DateTimeParseException e) {
+                throw new InvalidRowException("Invalid " + column + ": " + value);
+            }
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        private List<String> readRecord() throws IOException {
+            line = nextLine;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean empty = true;
+            int c;
+            while ((c = reader.read()) >= 0) {
+                empty = false;
+                if (c == '\n') {
+                    nextLine++;
+                }
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (empty) {
+                return null;
+            }
+            if (quoted) {
+                throw new InvalidRowException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
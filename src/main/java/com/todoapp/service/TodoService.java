@@ -1,75 +1,344 @@
 package com.todoapp.service;
 
 import com.todoapp.dto.TodoDto;
+import com.todoapp.entity.Priority;
 import com.todoapp.entity.Todo;
-import com.todoapp.entity.User;
+import com.todoapp.entity.TodoDeletion;
+import com.todoapp.event.TodoCompleted;
+import com.todoapp.event.TodoCreated;
+import com.todoapp.event.TodoDeleted;
+import com.todoapp.event.TodoUpdated;
+import com.todoapp.repository.TodoDeletionRepository;
+import com.todoapp.repository.TodoChange;
 import com.todoapp.repository.TodoRepository;
+import com.todoapp.repository.TodoRow;
+import com.todoapp.repository.TodoSearchHit;
+import com.todoapp.repository.TodoSpecifications;
+import com.todoapp.repository.UserRepository;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TodoService {
     
+    private static final Sort BY_CREATED = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+    private static final Sort BY_PRIORITY = Sort.by(Sort.Order.asc("priority")).and(BY_CREATED);
+    
     private final TodoRepository todoRepository;
+    private final TodoDeletionRepository todoDeletionRepository;
+    private final UserRepository userRepository;
+    private final StatsCache statsCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.todos.page.default-size}")
+    private int defaultPageSize;
+
+    @Value("${app.todos.page.max-size}")
+    private int maxPageSize;
+
+    @Value("${app.sync.safety-window}")
+    private Duration syncSafetyWindow;
+
+    @Value("${app.sync.tombstone-retention}")
+    private Duration tombstoneRetention;
+
+    @Value("${app.sync.page-size}")
+    private int syncPageSize;
+
+    @Value("${app.sync.max-changes}")
+    private int syncMaxChanges;
     
-    public List<TodoDto.Response> getAllTodos(User user) {
-        return todoRepository.findByUserOrderByCreatedAtDesc(user)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Lists todos matching {@code filter}, newest first or by priority. Any combination of filters
+     * and sort runs as one keyset-paginated query.
+     */
+    @Transactional(readOnly = true)
+    public TodoDto.PageResponse listTodos(Long userId, TodoDto.Filter filter, boolean byPriority,
+                                          String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        TodoCursor after = TodoCursor.decode(cursor, byPriority ? TodoCursor.Sort.PRIORITY : TodoCursor.Sort.CREATED);
+
+        Specification<Todo> spec = toSpecification(userId, filter);
+        if (after != null) {
+            spec = spec.and(byPriority
+                    ? TodoSpecifications.afterPriority(after.priority(), after.timestamp(), after.id())
+                    : TodoSpecifications.afterCreated(after.timestamp(), after.id()));
+        }
+        List<TodoDto.Response> todos = todoRepository.findResponses(
+                spec, byPriority ? BY_PRIORITY : BY_CREATED, Limit.of(pageSize + 1));
+        return toPage(todos, pageSize, Function.identity(),
+                byPriority ? TodoCursor::byPriority : TodoCursor::byCreatedAt);
     }
     
-    public List<TodoDto.Response> getTodosByStatus(User user, boolean completed) {
-        return todoRepository.findByUserAndCompletedOrderByCreatedAtDesc(user, completed)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Full-text search over title and description. Every word is matched as a prefix, so "gro mi"
+     * finds "Buy groceries and milk"; results are ordered by relevance, best first.
+     */
+    @Transactional(readOnly = true)
+    public TodoDto.PageResponse searchTodos(Long userId, String query, String cursor, Integer limit) {
+        String tsQuery = toPrefixQuery(query);
+        int pageSize = resolvePageSize(limit);
+        TodoCursor after = TodoCursor.decode(cursor, TodoCursor.Sort.RANK);
+        List<TodoSearchHit> hits = after == null
+                ? todoRepository.search(userId, tsQuery, Limit.of(pageSize + 1))
+                : todoRepository.searchAfter(userId, tsQuery, after.rank(), after.id(), Limit.of(pageSize + 1));
+        return toPage(hits, pageSize, this::mapToResponse, TodoCursor::byRank);
     }
     
-    public List<TodoDto.Response> getTodosByPriority(User user) {
-        return todoRepository.findByUserOrderByPriority(user)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Version of the user's todo collection as a whole; it changes whenever any of their todos is
+     * created, changed or deleted, so list and search responses can be revalidated cheaply.
+     */
+    @Transactional(readOnly = true)
+    public long getListVersion(Long userId) {
+        return userRepository.findTodoListVersion(userId);
     }
     
-    public TodoDto.Response getTodoById(Long id, User user) {
-        Todo todo = todoRepository.findByIdAndUser(id, user)
+    @Transactional(readOnly = true)
+    public TodoDto.Response getTodoById(Long id, Long userId) {
+        return todoRepository.findResponseByIdAndUserId(id, userId)
                 .orElseThrow(() -> new RuntimeException("Todo not found"));
+    }
+    
+    /**
+     * Returns todos written and ids deleted after {@code since}, oldest change first, in pages
+     * followed with {@code cursor}. Deleted ids and the new watermark come with the last page;
+     * earlier pages hand back {@code since}. The watermark trails the clock by a safety window so
+     * rows from transactions still in flight aren't skipped; clients may see a row twice and
+     * should treat changes as upserts. A client further behind than the tombstone retention or
+     * than max-changes is told to reload instead.
+     */
+    @Transactional(readOnly = true)
+    public TodoDto.ChangesResponse getChanges(Long userId, LocalDateTime since, String cursor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime watermark = now.minus(syncSafetyWindow);
+        TodoCursor after = TodoCursor.decode(cursor, TodoCursor.Sort.UPDATED);
+
+        if (after == null && (since.isBefore(now.minus(tombstoneRetention)) || tooManyChanges(userId, since))) {
+            return TodoDto.ChangesResponse.builder()
+                    .changed(List.of())
+                    .deleted(List.of())
+                    .watermark(watermark)
+                    .resetRequired(true)
+                    .build();
+        }
+
+        List<TodoDto.Response> changed = after == null
+                ? todoRepository.findResponsesUpdatedSince(userId, since, Limit.of(syncPageSize + 1))
+                : todoRepository.findResponsesUpdatedAfter(userId, after.timestamp(), after.id(), Limit.of(syncPageSize + 1));
+        if (changed.size() > syncPageSize) {
+            List<TodoDto.Response> page = changed.subList(0, syncPageSize);
+            return TodoDto.ChangesResponse.builder()
+                    .changed(page)
+                    .deleted(List.of())
+                    .watermark(since)
+                    .nextCursor(TodoCursor.byUpdatedAt(page.get(page.size() - 1)).encode())
+                    .hasMore(true)
+                    .build();
+        }
+
+        // Read with the watermark, so deletes made while earlier pages were fetched aren't skipped
+        return TodoDto.ChangesResponse.builder()
+                .changed(changed)
+                .deleted(todoDeletionRepository.findTodoIdsDeletedSince(userId, since))
+                .watermark(watermark.isAfter(since) ? watermark : since)
+                .build();
+    }
+
+    @Scheduled(cron = "${app.sync.tombstone-purge-cron}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = todoDeletionRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+        log.info("Purged {} todo tombstones", purged);
+    }
+    
+    @Transactional
+    public TodoDto.Response createTodo(TodoDto.CreateRequest request, Long userId) {
+        Todo todo = todoRepository.save(newTodo(request, userId));
+        userRepository.incrementTodoListVersion(userId);
+        statsCache.recordChange(userId, null, StatsCache.Footprint.of(todo));
+        eventPublisher.publishEvent(new TodoCreated(userId, todo.getId()));
         return mapToResponse(todo);
     }
     
+    /**
+     * Updates the given fields in a single statement. {@code expectedVersion}, when given, must
+     * match the todo's current version or the update is rejected.
+     */
+    @Transactional
+    public TodoDto.Response updateTodo(Long id, TodoDto.UpdateRequest request, Long userId, Long expectedVersion) {
+        TodoChange change = todoRepository.patch(id, userId, expectedVersion,
+                        request.getTitle(),
+                        request.getDescription(),
+                        request.getCompleted(),
+                        request.getPriority() != null ? request.getPriority().getCode() : null,
+                        request.getDueDate(),
+                        LocalDateTime.now())
+                .orElseThrow(() -> missingOrModified(id, userId, expectedVersion));
+        recordChange(userId, change);
+        return mapToResponse(change);
+    }
+    
+    /**
+     * Flips completion in a single statement; concurrent toggles of the same todo queue on its row
+     * lock instead of conflicting.
+     */
+    @Transactional
+    public TodoDto.Response toggleTodo(final Long id, final Long userId, final Long expectedVersion) {
+        TodoChange change = todoRepository.toggle(id, userId, expectedVersion, LocalDateTime.now())
+                .orElseThrow(() -> missingOrModified(id, userId, expectedVersion));
+        recordChange(userId, change);
+        return mapToResponse(change);
+    }
+    
+    @Transactional
+    public void deleteTodo(Long id, Long userId, Long expectedVersion) {
+        Todo todo = todoRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new RuntimeException("Todo not found"));
+        checkVersion(todo, expectedVersion);
+        todoRepository.delete(todo);
+        userRepository.incrementTodoListVersion(userId);
+        todoDeletionRepository.save(TodoDeletion.of(todo, LocalDateTime.now()));
+        statsCache.recordChange(userId, StatsCache.Footprint.of(todo), null);
+        eventPublisher.publishEvent(new TodoDeleted(userId, id));
+    }
+
+    /**
+     * Applies creates, then updates, then toggles, then deletes in one transaction. Every todo the
+     * batch touches is loaded with a single IN query; an unknown id rolls back the whole batch.
+     */
     @Transactional
-    public TodoDto.Response createTodo(TodoDto.CreateRequest request, User user) {
-        Todo todo = Todo.builder()
+    public TodoDto.BatchResponse applyBatch(TodoDto.BatchRequest request, Long userId) {
+        List<TodoDto.CreateRequest> creates = orEmpty(request.getCreate());
+        List<TodoDto.BatchUpdate> updates = orEmpty(request.getUpdate());
+        List<Long> toggles = orEmpty(request.getToggle());
+        List<Long> deletes = orEmpty(request.getDelete());
+
+        Set<Long> ids = new HashSet<>(toggles);
+        ids.addAll(deletes);
+        updates.forEach(update -> ids.add(update.getId()));
+        Map<Long, Todo> todos = new HashMap<>();
+        if (!ids.isEmpty()) {
+            todoRepository.findByIdInAndUserId(ids, userId).forEach(todo -> todos.put(todo.getId(), todo));
+        }
+        for (Long id : ids) {
+            if (!todos.containsKey(id)) {
+                throw new RuntimeException("Todo not found: " + id);
+            }
+        }
+
+        List<Todo> created = new ArrayList<>(creates.size());
+        for (TodoDto.CreateRequest create : creates) {
+            created.add(newTodo(create, userId));
+        }
+        created = todoRepository.saveAll(created);
+        for (Todo todo : created) {
+            statsCache.recordChange(userId, null, StatsCache.Footprint.of(todo));
+            eventPublisher.publishEvent(new TodoCreated(userId, todo.getId()));
+        }
+
+        List<Todo> updated = new ArrayList<>(updates.size());
+        for (TodoDto.BatchUpdate update : updates) {
+            Todo todo = todos.get(update.getId());
+            StatsCache.Footprint before = StatsCache.Footprint.of(todo);
+            applyUpdate(todo, update.getChanges());
+            statsCache.recordChange(userId, before, StatsCache.Footprint.of(todo));
+            publishChange(userId, todo, before);
+            updated.add(todo);
+        }
+
+        List<Todo> toggled = new ArrayList<>(toggles.size());
+        for (Long id : toggles) {
+            Todo todo = todos.get(id);
+            StatsCache.Footprint before = StatsCache.Footprint.of(todo);
+            applyToggle(todo);
+            statsCache.recordChange(userId, before, StatsCache.Footprint.of(todo));
+            publishChange(userId, todo, before);
+            toggled.add(todo);
+        }
+
+        // Flushing here runs the batched statements and @PreUpdate before responses are built
+        todoRepository.flush();
+
+        LocalDateTime deletedAt = LocalDateTime.now();
+        List<Todo> removed = new ArrayList<>(deletes.size());
+        List<TodoDeletion> tombstones = new ArrayList<>(deletes.size());
+        for (Long id : new LinkedHashSet<>(deletes)) {
+            Todo todo = todos.get(id);
+            statsCache.recordChange(userId, StatsCache.Footprint.of(todo), null);
+            eventPublisher.publishEvent(new TodoDeleted(userId, id));
+            removed.add(todo);
+            tombstones.add(TodoDeletion.of(todo, deletedAt));
+        }
+        todoRepository.deleteAll(removed);
+        todoDeletionRepository.saveAll(tombstones);
+        if (!created.isEmpty() || !ids.isEmpty()) {
+            userRepository.incrementTodoListVersion(userId);
+        }
+
+        return TodoDto.BatchResponse.builder()
+                .created(created.stream().map(this::mapToResponse).toList())
+                .updated(updated.stream().map(this::mapToResponse).toList())
+                .toggled(toggled.stream().map(this::mapToResponse).toList())
+                .deleted(removed.stream().map(Todo::getId).toList())
+                .build();
+    }
+
+    private Todo newTodo(TodoDto.CreateRequest request, Long userId) {
+        return Todo.builder()
                 .title(request.getTitle())
                 .description(request.getDescription())
-                .priority(request.getPriority() != null ? request.getPriority() : "medium")
+                .priority(request.getPriority() != null ? request.getPriority() : Priority.MEDIUM)
                 .dueDate(request.getDueDate())
                 .completed(false)
-                .user(user)
+                .user(userRepository.getReferenceById(userId))
                 .build();
-        
-        todo = todoRepository.save(todo);
-        return mapToResponse(todo);
     }
-    
-    @Transactional
-    public TodoDto.Response updateTodo(Long id, TodoDto.UpdateRequest request, User user) {
-        Todo todo = todoRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Todo not found"));
-        
+
+    private RuntimeException missingOrModified(Long id, Long userId, Long expectedVersion) {
+        if (expectedVersion != null && todoRepository.existsByIdAndUserId(id, userId)) {
+            return new PreconditionFailedException("Todo has been modified");
+        }
+        return new RuntimeException("Todo not found");
+    }
+
+    private void recordChange(Long userId, TodoChange change) {
+        statsCache.recordChange(userId,
+                new StatsCache.Footprint(change.getWasCompleted(), change.getPreviousDueDate()),
+                new StatsCache.Footprint(change.getCompleted(), change.getDueDate()));
+        publishChange(userId, change.getId(), change.getWasCompleted(), change.getCompleted(), change.getCompletedAt());
+    }
+
+    private static void checkVersion(Todo todo, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(todo.getVersion())) {
+            throw new PreconditionFailedException("Todo has been modified");
+        }
+    }
+
+    private void applyUpdate(Todo todo, TodoDto.UpdateRequest request) {
         if (request.getTitle() != null) {
             todo.setTitle(request.getTitle());
         }
@@ -95,88 +364,119 @@ public class TodoService {
         if (request.getDueDate() != null) {
             todo.setDueDate(request.getDueDate());
         }
-
-        try (OutputStream s = new FileOutputStream("danfile.txt")) {
-            s.write(("I am a bunch of text" + new java.util.Date()).getBytes());
-        } catch (IOException ioe) {
-            log.error("Couldn't write file: " + ioe.getMessage());
-        }
-        
-        todo = todoRepository.save(todo);
-        return mapToResponse(todo);
     }
-    
-    @Transactional
-    public TodoDto.Response toggleTodo(final Long id, final User user) {
-        Todo todo = todoRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Todo not found"));
 
+    private void applyToggle(Todo todo) {
         boolean newCompletedStatus = !todo.isCompleted();
         todo.setCompleted(newCompletedStatus);
 
         // Set completedAt timestamp when marking as completed, clear when marking as incomplete
         if (newCompletedStatus) {
             todo.setCompletedAt(LocalDateTime.now());
-            new Thread(() -> {
-                log.debug("I am a thread");
-            }).start();
         } else {
             todo.setCompletedAt(null);
         }
+    }
 
-        todo = todoRepository.save(todo);
-        return mapToResponse(todo);
+    private void publishChange(Long userId, Todo todo, StatsCache.Footprint before) {
+        publishChange(userId, todo.getId(), before.completed(), todo.isCompleted(), todo.getCompletedAt());
     }
-    
-    @Transactional
-    public void deleteTodo(Long id, User user) {
-        Todo todo = todoRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Todo not found"));
-        todoRepository.delete(todo);
+
+    private void publishChange(Long userId, Long todoId, boolean wasCompleted, boolean completed,
+                               LocalDateTime completedAt) {
+        if (completed && !wasCompleted) {
+            eventPublisher.publishEvent(new TodoCompleted(userId, todoId, completedAt));
+        } else {
+            eventPublisher.publishEvent(new TodoUpdated(userId, todoId));
+        }
+    }
+
+    private static Specification<Todo> toSpecification(Long userId, TodoDto.Filter filter) {
+        Specification<Todo> spec = TodoSpecifications.ownedBy(userId);
+        if (filter.getCompleted() != null) {
+            spec = spec.and(TodoSpecifications.completed(filter.getCompleted()));
+        }
+        if (filter.getPriority() != null && !filter.getPriority().isEmpty()) {
+            spec = spec.and(TodoSpecifications.priorityIn(filter.getPriority()));
+        }
+        if (filter.getDueAfter() != null) {
+            spec = spec.and(TodoSpecifications.dueFrom(filter.getDueAfter()));
+        }
+        if (filter.getDueBefore() != null) {
+            spec = spec.and(TodoSpecifications.dueBefore(filter.getDueBefore()));
+        }
+        if (filter.getCreatedAfter() != null) {
+            spec = spec.and(TodoSpecifications.createdFrom(filter.getCreatedAfter()));
+        }
+        if (filter.getCreatedBefore() != null) {
+            spec = spec.and(TodoSpecifications.createdBefore(filter.getCreatedBefore()));
+        }
+        if (filter.getOverdue() != null) {
+            Specification<Todo> overdue = TodoSpecifications.overdue(LocalDateTime.now());
+            spec = spec.and(filter.getOverdue() ? overdue : Specification.not(overdue));
+        }
+        return spec;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    private boolean tooManyChanges(Long userId, LocalDateTime since) {
+        int changed = todoRepository.countUpdatedSince(userId, since, syncMaxChanges + 1);
+        return changed > syncMaxChanges
+                || changed + todoDeletionRepository.countDeletedSince(userId, since, syncMaxChanges + 1) > syncMaxChanges;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new RuntimeException("Limit must be positive");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Queries fetch one row beyond the page so hasMore is known without a count query
+    private <T> TodoDto.PageResponse toPage(List<T> rows, int pageSize, Function<T, TodoDto.Response> toResponse,
+                                            Function<T, TodoCursor> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> page = hasMore ? rows.subList(0, pageSize) : rows;
+        return TodoDto.PageResponse.builder()
+                .items(page.stream().map(toResponse).toList())
+                .nextCursor(hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
     
-    public TodoDto.StatsResponse getStats(User user) {
-        long completed = todoRepository.countByUserAndCompleted(user, true);
-        long pending = todoRepository.countByUserAndCompleted(user, false);
-
-        final List<TodoDto.Response> allTodos = getAllTodos(user);
-        long wibble = allTodos.stream().filter(
-                todo -> todo.getDueDate() != null
-                    && todo.getDueDate().isAfter(LocalDateTime.now()))
-                    .count();
-
-        long overdue = todoRepository.findOverdueTodos(user).size();
-        return TodoDto.StatsResponse.builder()
-                .total(completed + pending)
-                .completed(completed)
-                .pending(pending)
-                .overdue(overdue)
+    // Words become prefix terms ANDed together; anything that isn't a letter or digit separates words
+    private static String toPrefixQuery(String query) {
+        StringJoiner terms = new StringJoiner(" & ");
+        for (String word : query.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word + ":*");
+            }
+        }
+        if (terms.length() == 0) {
+            throw new RuntimeException("Search query must contain a letter or digit");
+        }
+        return terms.toString();
+    }
+
+    private TodoDto.Response mapToResponse(TodoRow row) {
+        return TodoDto.Response.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .description(row.getDescription())
+                .completed(row.getCompleted())
+                .priority(Priority.fromCode(row.getPriority()))
+                .dueDate(row.getDueDate())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .completedAt(row.getCompletedAt())
+                .version(row.getVersion())
                 .build();
-        /* Design Patterns:
-        Abstract Factory
-        Adapter
-        Bridge
-        Builder
-        Chain of Responsibility
-        Command
-        Composite
-        Decorator
-        Facade
-        Factory Method
-        Flyweight
-        Interpreter
-        Iterator
-        Mediator
-        Memento
-        Observer
-        Prototype
-        Proxy
-        Singleton
-        State
-        Strategy
-        Template Method
-        Visitor
-         */
     }
     
     private TodoDto.Response mapToResponse(Todo todo) {
@@ -190,6 +490,7 @@ public class TodoService {
                 .createdAt(todo.getCreatedAt())
                 .updatedAt(todo.getUpdatedAt())
                 .completedAt(todo.getCompletedAt())
+                .version(todo.getVersion())
                 .build();
     }
 }
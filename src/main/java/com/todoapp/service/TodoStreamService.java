@@ -0,0 +1,168 @@
+package com.todoapp.service;
+
+import com.todoapp.event.TodoEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes todo change notifications to open SSE connections. Each connection has a bounded buffer
+ * drained by its own virtual thread, so a slow client never blocks the thread that published the
+ * event; a client whose buffer fills up is disconnected and is expected to resync via /changes.
+ */
+@Slf4j
+@Service
+public class TodoStreamService implements MeterBinder {
+
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final LongAdder overflows = new LongAdder();
+
+    @Value("${app.stream.timeout}")
+    private Duration timeout;
+
+    @Value("${app.stream.heartbeat}")
+    private Duration heartbeat;
+
+    @Value("${app.stream.buffer-size}")
+    private int bufferSize;
+
+    @Value("${app.stream.max-connections-per-user}")
+    private int maxConnectionsPerUser;
+
+    private record Message(String name, String data) {
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        // The emitter and its buffer are only allocated once the user is known to be under the cap
+        Connection[] created = new Connection[1];
+        connections.compute(userId, (id, userConnections) -> {
+            if (userConnections == null) {
+                userConnections = ConcurrentHashMap.newKeySet();
+            } else if (userConnections.size() >= maxConnectionsPerUser) {
+                throw new TooManyStreamsException("Too many open streams");
+            }
+            created[0] = new Connection(userId, new SseEmitter(timeout.toMillis()), new ArrayBlockingQueue<>(bufferSize));
+            userConnections.add(created[0]);
+            return userConnections;
+        });
+        openConnections.incrementAndGet();
+
+        Connection connection = created[0];
+        SseEmitter emitter = connection.emitter;
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::complete);
+        emitter.onError(e -> connection.close());
+        Thread.ofVirtual().name("sse-" + userId).start(connection::drain);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoEvent(TodoEvent event) {
+        notify(event.userId(), event.type(), "{\"id\":" + event.todoId() + "}");
+    }
+
+    /**
+     * Sends an event with a pre-serialized JSON payload to every open stream of the user.
+     */
+    public void notify(Long userId, String name, String data) {
+        Set<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        Message message = new Message(name, data);
+        for (Connection connection : userConnections) {
+            connection.offer(message);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        connections.values().forEach(userConnections -> userConnections.forEach(Connection::complete));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("todo.stream.connections", openConnections, AtomicInteger::get)
+                .register(registry);
+        FunctionCounter.builder("todo.stream.overflows", overflows, LongAdder::sum)
+                .register(registry);
+    }
+
+    private final class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> buffer;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(Long userId, SseEmitter emitter, BlockingQueue<Message> buffer) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        void offer(Message message) {
+            if (!closed.get() && !buffer.offer(message)) {
+                overflows.increment();
+                log.debug("Dropping slow SSE consumer for user {}", userId);
+                complete();
+            }
+        }
+
+        void drain() {
+            try {
+                emitter.send(SseEmitter.event().comment("connected"));
+                while (!closed.get()) {
+                    Message message = buffer.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (closed.get()) {
+                        break;
+                    }
+                    emitter.send(message != null
+                            ? SseEmitter.event().name(message.name()).data(message.data())
+                            : SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                complete();
+            }
+        }
+
+        void complete() {
+            close();
+            emitter.complete();
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            openConnections.decrementAndGet();
+            connections.computeIfPresent(userId, (id, userConnections) -> {
+                userConnections.remove(this);
+                return userConnections.isEmpty() ? null : userConnections;
+            });
+        }
+    }
+}
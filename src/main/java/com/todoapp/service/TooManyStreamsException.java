@@ -0,0 +1,11 @@
+package com.todoapp.service;
+
+/**
+ * The user already has the maximum number of change streams open; one must close first.
+ */
+public class TooManyStreamsException extends RuntimeException {
+
+    public TooManyStreamsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+-- Tombstone ids move to a pooled sequence, like todos in V2, so the tombstones written by deletes
+-- and batches can be inserted as one JDBC batch instead of one round trip each.
+
+CREATE SEQUENCE todo_deletions_seq INCREMENT BY 50;
+
+SELECT setval('todo_deletions_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM todo_deletions), false);
+
+ALTER TABLE todo_deletions ALTER COLUMN id DROP DEFAULT;
+
+DROP SEQUENCE IF EXISTS todo_deletions_id_seq;
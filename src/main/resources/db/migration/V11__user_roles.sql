@@ -0,0 +1,3 @@
+-- Every account is a plain user; operators are granted ADMIN directly in the database
+-- (UPDATE users SET role = 'ADMIN' WHERE email = ...), which unlocks /actuator/metrics.
+ALTER TABLE users ADD COLUMN role VARCHAR(20) NOT NULL DEFAULT 'USER';
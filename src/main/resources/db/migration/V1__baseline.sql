@@ -0,0 +1,26 @@
+-- Schema as previously generated by Hibernate's ddl-auto=update. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and skip this script.
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGSERIAL PRIMARY KEY,
+    created_at TIMESTAMP(6),
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    name       VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS todos (
+    id           BIGSERIAL PRIMARY KEY,
+    completed    BOOLEAN NOT NULL,
+    completed_at TIMESTAMP(6),
+    created_at   TIMESTAMP(6),
+    description  TEXT,
+    due_date     TIMESTAMP(6),
+    priority     VARCHAR(255) NOT NULL,
+    title        VARCHAR(255) NOT NULL,
+    updated_at   TIMESTAMP(6),
+    user_id      BIGINT NOT NULL REFERENCES users (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_todos_user_created ON todos (user_id, created_at DESC, id DESC);
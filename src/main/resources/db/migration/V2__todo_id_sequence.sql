@@ -0,0 +1,10 @@
+-- Todo ids move from a per-row serial to a pooled sequence so Hibernate can batch inserts.
+-- Hibernate hands out ids [n - 49, n] for each nextval n, so the first value must clear MAX(id) by 50.
+
+CREATE SEQUENCE todos_seq INCREMENT BY 50;
+
+SELECT setval('todos_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM todos), false);
+
+ALTER TABLE todos ALTER COLUMN id DROP DEFAULT;
+
+DROP SEQUENCE IF EXISTS todos_id_seq;
@@ -0,0 +1,13 @@
+-- Tombstones for deleted todos so clients can sync deltas instead of re-fetching everything.
+
+CREATE TABLE todo_deletions (
+    id         BIGSERIAL PRIMARY KEY,
+    todo_id    BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    deleted_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_todo_deletions_user_deleted ON todo_deletions (user_id, deleted_at);
+CREATE INDEX idx_todo_deletions_deleted ON todo_deletions (deleted_at);
+
+CREATE INDEX idx_todos_user_updated ON todos (user_id, updated_at);
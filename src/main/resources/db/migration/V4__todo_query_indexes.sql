@@ -0,0 +1,11 @@
+-- Composite indexes matching TodoRepository's query shapes. Every query filters on user_id first.
+
+-- Default listing: WHERE user_id = ? ORDER BY created_at DESC, id DESC (+ keyset predicate).
+-- Re-asserted here for databases that were baselined before V1 added it.
+CREATE INDEX IF NOT EXISTS idx_todos_user_created ON todos (user_id, created_at DESC, id DESC);
+
+-- Listing filtered by status: WHERE user_id = ? AND completed = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_todos_user_completed_created ON todos (user_id, completed, created_at DESC, id DESC);
+
+-- Overdue/upcoming lookups only ever look at pending todos
+CREATE INDEX idx_todos_user_pending_due ON todos (user_id, due_date) WHERE completed = false;
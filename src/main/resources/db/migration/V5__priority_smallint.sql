@@ -0,0 +1,9 @@
+-- Priority becomes a smallint code (0 = high, 1 = medium, 2 = low) so that priority ordering is a
+-- plain column sort an index can serve. Unrecognised legacy strings become medium.
+
+ALTER TABLE todos ALTER COLUMN priority TYPE SMALLINT USING
+    CASE lower(priority) WHEN 'high' THEN 0 WHEN 'low' THEN 2 ELSE 1 END;
+
+ALTER TABLE todos ADD CONSTRAINT ck_todos_priority CHECK (priority BETWEEN 0 AND 2);
+
+CREATE INDEX idx_todos_user_priority_created ON todos (user_id, priority, created_at DESC, id DESC);
@@ -0,0 +1,9 @@
+-- Full-text search over title (weight A) and description (weight B). The 'simple' configuration
+-- skips stemming and stop words so prefix queries match what the user typed.
+
+ALTER TABLE todos ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_todos_search ON todos USING GIN (search_vector);
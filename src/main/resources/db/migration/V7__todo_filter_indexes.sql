@@ -0,0 +1,8 @@
+-- Indexes for combined filters on GET /api/todos.
+
+-- Status filter with the priority sort: WHERE user_id = ? AND completed = ? ORDER BY priority, created_at DESC, id DESC
+CREATE INDEX idx_todos_user_completed_priority_created
+    ON todos (user_id, completed, priority, created_at DESC, id DESC);
+
+-- Due date ranges regardless of status (the partial index only covers pending todos)
+CREATE INDEX idx_todos_user_due ON todos (user_id, due_date);
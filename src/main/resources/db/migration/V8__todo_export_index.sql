@@ -0,0 +1,3 @@
+-- Export walks a user's todos in id order and resumes from the last exported id:
+-- WHERE user_id = ? AND id > ? ORDER BY id
+CREATE INDEX idx_todos_user_id ON todos (user_id, id);
@@ -0,0 +1,6 @@
+-- Optimistic locking: every update of a todo bumps its version, which also serves as its ETag.
+ALTER TABLE todos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Bumped in the same transaction as any change to a user's todos, so a list ETag can be read
+-- with a primary key lookup and never runs ahead of uncommitted writes.
+ALTER TABLE users ADD COLUMN todo_list_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,35 @@
+package com.todoapp.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * Starts a throwaway PostgreSQL for a test class and points the application at it. Each class
+ * gets its own server, so seeded data and planner statistics never leak between classes.
+ */
+final class EmbeddedPostgresSupport {
+
+    private EmbeddedPostgresSupport() {
+    }
+
+    static EmbeddedPostgres start(DynamicPropertyRegistry registry) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("app.events.log-file", EmbeddedPostgresSupport::eventLogFile);
+        return postgres;
+    }
+
+    private static String eventLogFile() {
+        try {
+            return Files.createTempFile("todo-events", ".log").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
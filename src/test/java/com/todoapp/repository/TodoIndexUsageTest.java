@@ -0,0 +1,323 @@
+package com.todoapp.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.dto.TodoDto;
+import com.todoapp.service.TodoService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the todo indexes from V4, V5, V7 and V8 against query changes that stop the planner from
+ * using them. Listing queries run through {@link TodoService} against seeded data; the SQL and
+ * parameters Hibernate sends are recorded and replayed under EXPLAIN.
+ */
+@SpringBootTest
+class TodoIndexUsageTest {
+
+    private static final long USER_ID = 7;
+    private static final int USERS = 500;
+    private static final int TODOS = 100_000;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (id, email, name, password, created_at, updated_at) " +
+                "SELECT u, 'user' || u || '@example.com', 'User ' || u, 'x', now(), now() " +
+                "FROM generate_series(1, ?) u", USERS);
+        // Spread over users, statuses, priorities and +/-30 days of due dates; a quarter have none
+        jdbcTemplate.update("INSERT INTO todos (id, user_id, title, completed, priority, due_date, created_at, updated_at) " +
+                "SELECT g, g % ? + 1, 'Todo ' || g, g % 3 = 0, (g / 7 % 3)::smallint, " +
+                "CASE WHEN g % 4 = 0 THEN NULL ELSE now() + (g % 60 - 30) * interval '1 day' END, " +
+                "now() - g * interval '1 minute', now() - g * interval '1 minute' " +
+                "FROM generate_series(1, ?) g", USERS, TODOS);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE todos");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgresSupport.start(registry);
+    }
+
+    @Test
+    void newestFirstListingUsesUserCreatedIndex() {
+        JsonNode plan = explain(() -> list(new TodoDto.Filter(), false, null));
+
+        assertIndexScan(plan, "idx_todos_user_created");
+    }
+
+    @Test
+    void newestFirstKeysetPageUsesUserCreatedIndex() {
+        String cursor = list(new TodoDto.Filter(), false, null).getNextCursor();
+
+        JsonNode plan = explain(() -> list(new TodoDto.Filter(), false, cursor));
+
+        assertIndexScan(plan, "idx_todos_user_created");
+    }
+
+    @Test
+    void prioritySortUsesUserPriorityIndex() {
+        String cursor = list(new TodoDto.Filter(), true, null).getNextCursor();
+
+        assertIndexScan(explain(() -> list(new TodoDto.Filter(), true, null)), "idx_todos_user_priority_created");
+        assertIndexScan(explain(() -> list(new TodoDto.Filter(), true, cursor)), "idx_todos_user_priority_created");
+    }
+
+    @Test
+    void statusFilterUsesUserCompletedIndex() {
+        TodoDto.Filter pending = new TodoDto.Filter();
+        pending.setCompleted(false);
+        String cursor = list(pending, false, null).getNextCursor();
+
+        assertIndexScan(explain(() -> list(pending, false, null)), "idx_todos_user_completed_created");
+        assertIndexScan(explain(() -> list(pending, false, cursor)), "idx_todos_user_completed_created");
+    }
+
+    @Test
+    void statusFilterWithPrioritySortUsesUserCompletedPriorityIndex() {
+        TodoDto.Filter completed = new TodoDto.Filter();
+        completed.setCompleted(true);
+        String cursor = list(completed, true, null).getNextCursor();
+
+        assertIndexScan(explain(() -> list(completed, true, null)), "idx_todos_user_completed_priority_created");
+        assertIndexScan(explain(() -> list(completed, true, cursor)), "idx_todos_user_completed_priority_created");
+    }
+
+    @Test
+    void overdueFilterUsesPendingDueIndex() {
+        TodoDto.Filter overdue = new TodoDto.Filter();
+        overdue.setOverdue(true);
+
+        JsonNode plan = explain(() -> list(overdue, false, null));
+
+        assertIndexScan(plan, "idx_todos_user_pending_due");
+    }
+
+    @Test
+    void dueDateRangeUsesUserDueIndex() {
+        LocalDateTime tomorrow = LocalDateTime.now().toLocalDate().plusDays(1).atStartOfDay();
+        TodoDto.Filter dueTomorrow = new TodoDto.Filter();
+        dueTomorrow.setDueAfter(tomorrow);
+        dueTomorrow.setDueBefore(tomorrow.plusDays(1));
+
+        JsonNode plan = explain(() -> list(dueTomorrow, false, null));
+
+        assertIndexScan(plan, "idx_todos_user_due");
+    }
+
+    @Test
+    void exportWalkUsesUserIdIndex() {
+        // Stream queries need an open transaction to keep their cursor
+        JsonNode plan = explain(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<TodoDto.Response> todos = todoRepository.streamForExport(USER_ID, 0)) {
+                todos.limit(10).forEach(todo -> { });
+            }
+        }));
+
+        assertIndexScan(plan, "idx_todos_user_id");
+    }
+
+    private TodoDto.PageResponse list(TodoDto.Filter filter, boolean byPriority, String cursor) {
+        return todoService.listTodos(USER_ID, filter, byPriority, cursor, 20);
+    }
+
+    /**
+     * Runs {@code call} and returns the plan of the last query it sent against the todos table.
+     * Queries read through a cursor are explained as one, since the planner then optimizes for
+     * the first rows rather than the whole result.
+     */
+    private JsonNode explain(Runnable call) {
+        StatementRecorder.clear();
+        call.run();
+        StatementRecorder.Recorded query = StatementRecorder.lastSelectFrom("todos");
+        String sql = "EXPLAIN (FORMAT JSON) " + (query.cursor() ? "DECLARE explained CURSOR FOR " : "") + query.sql();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement explain = connection.prepareStatement(sql)) {
+                for (StatementRecorder.Binding binding : query.bindings()) {
+                    binding.method().invoke(explain, binding.args());
+                }
+                try (ResultSet result = explain.executeQuery()) {
+                    result.next();
+                    return objectMapper.readTree(result.getString(1)).get(0).get("Plan");
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException | IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not explain " + query.sql(), e);
+        }
+    }
+
+    private static void assertIndexScan(JsonNode plan, String index) {
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(plan, nodes);
+        assertThat(nodes)
+                .as("plan %s", plan)
+                .noneMatch(node -> "Seq Scan".equals(node.path("Node Type").asText())
+                        && "todos".equals(node.path("Relation Name").asText()))
+                .anyMatch(node -> index.equals(node.path("Index Name").asText()));
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, nodes);
+        }
+    }
+
+    @TestConfiguration
+    static class RecorderConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if ("dataSource".equals(beanName) && bean instanceof DataSource target) {
+                        return new StatementRecorder.RecordingDataSource(target);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Keeps every prepared statement with the parameter setter calls made on it, so a statement
+     * can be replayed exactly as Hibernate bound it.
+     */
+    static final class StatementRecorder {
+
+        private static final List<Recorded> RECORDED = new CopyOnWriteArrayList<>();
+
+        record Binding(Method method, Object[] args) {
+        }
+
+        record Recorded(String sql, List<Binding> bindings, boolean cursor) {
+        }
+
+        private StatementRecorder() {
+        }
+
+        static void clear() {
+            RECORDED.clear();
+        }
+
+        static Recorded lastSelectFrom(String table) {
+            for (int i = RECORDED.size() - 1; i >= 0; i--) {
+                Recorded recorded = RECORDED.get(i);
+                String sql = recorded.sql().toLowerCase();
+                if (sql.startsWith("select") && sql.contains(" from " + table + " ")) {
+                    return recorded;
+                }
+            }
+            throw new AssertionError("No query against " + table + " was recorded");
+        }
+
+        static class RecordingDataSource extends DelegatingDataSource {
+
+            RecordingDataSource(DataSource target) {
+                super(target);
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return recording(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return recording(super.getConnection(username, password));
+            }
+
+            private static Connection recording(Connection connection) {
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                            Object result = invoke(connection, method, args);
+                            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                                return recording(statement, (String) args[0]);
+                            }
+                            return result;
+                        });
+            }
+
+            private static PreparedStatement recording(PreparedStatement statement, String sql) {
+                List<Binding> bindings = new CopyOnWriteArrayList<>();
+                boolean[] cursor = new boolean[1];
+                return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                        new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                            String name = method.getName();
+                            if (name.equals("setFetchSize")) {
+                                cursor[0] = (Integer) args[0] > 0;
+                            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                                bindings.add(new Binding(method, args.clone()));
+                            } else if (name.startsWith("execute")) {
+                                RECORDED.add(new Recorded(sql, List.copyOf(bindings), cursor[0]));
+                            }
+                            return invoke(statement, method, args);
+                        });
+            }
+
+            private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
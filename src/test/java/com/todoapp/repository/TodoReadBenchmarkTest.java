@@ -0,0 +1,150 @@
+package com.todoapp.repository;
+
+import com.todoapp.dto.TodoDto;
+import com.todoapp.entity.Todo;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads a 10k-todo user through the constructor projection and through the entity path it
+ * replaced (managed Todo entities in a read-write transaction, copied into responses), and logs
+ * latency and allocation per read. Opt-in because it takes a while:
+ * {@code mvn test -Dtest=TodoReadBenchmarkTest -Dbenchmark=true}
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TodoReadBenchmarkTest {
+
+    private static final long USER_ID = 1;
+    private static final int TODOS = 10_000;
+    private static final int WARMUP = 30;
+    private static final int RUNS = 100;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (id, email, name, password, created_at, updated_at) " +
+                "VALUES (?, 'bench@example.com', 'Bench', 'x', now(), now())", USER_ID);
+        jdbcTemplate.update("INSERT INTO todos (id, user_id, title, description, completed, priority, due_date, " +
+                "created_at, updated_at) " +
+                "SELECT g, ?, 'Todo ' || g, 'Description of todo number ' || g, g % 3 = 0, (g % 3)::smallint, " +
+                "now() + (g % 60 - 30) * interval '1 day', now() - g * interval '1 minute', now() - g * interval '1 minute' " +
+                "FROM generate_series(1, ?) g", USER_ID, TODOS);
+        jdbcTemplate.execute("ANALYZE todos");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgresSupport.start(registry);
+    }
+
+    @Test
+    void projectionReadsAllocateLessThanEntityReads() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        Supplier<List<TodoDto.Response>> projection = () -> readOnly.execute(status ->
+                todoRepository.findResponsesUpdatedSince(USER_ID, EPOCH, Limit.of(TODOS)));
+        Supplier<List<TodoDto.Response>> entities = () -> readWrite.execute(status -> entityManager
+                .createQuery("SELECT t FROM Todo t WHERE t.user.id = :userId AND t.updatedAt > :since " +
+                        "ORDER BY t.updatedAt, t.id", Todo.class)
+                .setParameter("userId", USER_ID)
+                .setParameter("since", EPOCH)
+                .getResultList().stream()
+                .map(TodoReadBenchmarkTest::toResponse)
+                .toList());
+
+        assertThat(projection.get()).hasSize(TODOS).isEqualTo(entities.get());
+
+        Result entityResult = measure("entities", entities);
+        Result projectionResult = measure("projection", projection);
+        log.info("{}", entityResult);
+        log.info("{}", projectionResult);
+
+        assertThat(projectionResult.bytesPerRead()).isLessThan(entityResult.bytesPerRead());
+    }
+
+    private record Result(String name, double meanMillis, double p50Millis, double p95Millis, long bytesPerRead) {
+        @Override
+        public String toString() {
+            return String.format("%-10s %d todos: mean %.1f ms, p50 %.1f ms, p95 %.1f ms, %.1f MB allocated per read",
+                    name, TODOS, meanMillis, p50Millis, p95Millis, bytesPerRead / 1_048_576.0);
+        }
+    }
+
+    private static Result measure(String name, Supplier<?> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            read.get();
+        }
+        long[] nanos = new long[RUNS];
+        long bytes = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            read.get();
+            nanos[i] = System.nanoTime() - start;
+            bytes += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        Arrays.sort(nanos);
+        return new Result(name, Arrays.stream(nanos).average().orElse(0) / 1e6,
+                nanos[RUNS / 2] / 1e6, nanos[RUNS * 95 / 100] / 1e6, bytes / RUNS);
+    }
+
+    // The mapping the entity read path used before it was replaced by the projection
+    private static TodoDto.Response toResponse(Todo todo) {
+        return TodoDto.Response.builder()
+                .id(todo.getId())
+                .title(todo.getTitle())
+                .description(todo.getDescription())
+                .completed(todo.isCompleted())
+                .priority(todo.getPriority())
+                .dueDate(todo.getDueDate())
+                .createdAt(todo.getCreatedAt())
+                .updatedAt(todo.getUpdatedAt())
+                .completedAt(todo.getCompletedAt())
+                .version(todo.getVersion())
+                .build();
+    }
+}